@@ -1,12 +1,19 @@
 package com.koroliuk.userapi;
 
+import com.koroliuk.userapi.sharding.ShardRebalancer;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.Arrays;
+
 @SpringBootApplication
 public class UserApiApplication {
 
 	public static void main(String[] args) {
+		if (Arrays.asList(args).contains(ShardRebalancer.COMMAND)) {
+			ShardRebalancer.runOffline(UserApiApplication.class, args);
+			return;
+		}
 		SpringApplication.run(UserApiApplication.class, args);
 	}
 
@@ -0,0 +1,33 @@
+package com.koroliuk.userapi.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.koroliuk.userapi.service.UserServiceImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Collection;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Search results are weighed by the number of users they hold, so the cache stays within
+     * {@code user.search.cache.max-users} however many distinct ranges are requested.
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${user.search.cache.max-users}") long maxUsers,
+                                     @Value("${user.search.cache.ttl-seconds}") long ttlSeconds) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(UserServiceImpl.BIRTH_DATE_SEARCH_CACHE);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumWeight(maxUsers)
+                .weigher((Object key, Object value) -> value instanceof Collection<?> users ? users.size() + 1 : 1)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds)));
+        return cacheManager;
+    }
+}
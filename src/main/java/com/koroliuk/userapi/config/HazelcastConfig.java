@@ -0,0 +1,55 @@
+package com.koroliuk.userapi.config;
+
+import com.hazelcast.config.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+
+/**
+ * Embedded Hazelcast member backing the cluster-wide user cache. Members find each other through
+ * {@code user.cache.members}; with no members configured the node runs as a single-member cluster.
+ */
+@Configuration
+@ConditionalOnProperty(value = "user.cache.enabled", havingValue = "true")
+public class HazelcastConfig {
+
+    public static final String USERS_MAP = "users";
+    public static final String MODIFICATIONS_MAP = "userModifications";
+
+    @Bean
+    public Config userCacheConfig(@Value("${user.cache.cluster-name}") String clusterName,
+                                  @Value("${user.cache.members:}") String[] members,
+                                  @Value("${user.cache.ttl-seconds}") int ttlSeconds,
+                                  @Value("${user.cache.near-cache-size}") int nearCacheSize) {
+        Config config = new Config();
+        config.setClusterName(clusterName);
+        config.setProperty("hazelcast.phone.home.enabled", "false");
+        config.setProperty("hazelcast.shutdownhook.enabled", "false");
+        // send near cache invalidations right away instead of batching them for up to 10 seconds
+        config.setProperty("hazelcast.map.invalidation.batch.enabled", "false");
+
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getAutoDetectionConfig().setEnabled(false);
+        join.getTcpIpConfig()
+                .setEnabled(true)
+                .setMembers(Arrays.stream(members).map(String::trim).filter(member -> !member.isEmpty()).toList());
+
+        NearCacheConfig nearCacheConfig = new NearCacheConfig(USERS_MAP)
+                .setInMemoryFormat(InMemoryFormat.OBJECT)
+                .setInvalidateOnChange(true)
+                .setCacheLocalEntries(true)
+                .setTimeToLiveSeconds(ttlSeconds)
+                .setEvictionConfig(new EvictionConfig()
+                        .setEvictionPolicy(EvictionPolicy.LRU)
+                        .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+                        .setSize(nearCacheSize));
+        config.addMapConfig(new MapConfig(USERS_MAP)
+                .setTimeToLiveSeconds(ttlSeconds)
+                .setNearCacheConfig(nearCacheConfig));
+        return config;
+    }
+}
@@ -1,28 +1,58 @@
 package com.koroliuk.userapi.controller;
 
+import com.koroliuk.userapi.config.WireFormatConfig;
+import com.koroliuk.userapi.dto.PatchStatus;
 import com.koroliuk.userapi.dto.UserDTO;
+import com.koroliuk.userapi.dto.UserFilter;
 import com.koroliuk.userapi.model.User;
+import com.koroliuk.userapi.service.PatchWriteBehindService;
 import com.koroliuk.userapi.service.UserService;
 import com.koroliuk.userapi.validation.OnPatch;
+import com.koroliuk.userapi.validation.UserDTOValidator;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/users")
 public class UserController {
 
     private final UserService userService;
+    private final PatchWriteBehindService patchWriteBehindService;
+    private final UserDTOValidator userDTOValidator;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, PatchWriteBehindService patchWriteBehindService,
+                          UserDTOValidator userDTOValidator) {
         this.userService = userService;
+        this.patchWriteBehindService = patchWriteBehindService;
+        this.userDTOValidator = userDTOValidator;
+    }
+
+    @InitBinder("userDTO")
+    public void initUserDTOBinder(WebDataBinder binder) {
+        binder.setValidator(userDTOValidator);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<User> getUser(@PathVariable Long id) {
+        return ResponseEntity.ok(userService.findById(id));
     }
 
     @PostMapping
@@ -33,28 +63,115 @@ public class UserController {
 
     @PutMapping("/{id}")
     public ResponseEntity<User> updateUser(@PathVariable Long id, @Valid @RequestBody UserDTO userDto) {
-        User updatedUser = userService.update(id, userDto);
+        User updatedUser = patchWriteBehindService.writeThrough(id, () -> userService.update(id, userDto));
         return ResponseEntity.ok(updatedUser);
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<User> patchUpdateUser(@PathVariable Long id,
-                                                @Validated(OnPatch.class) @RequestBody UserDTO userDto) {
+    public ResponseEntity<?> patchUpdateUser(@PathVariable Long id,
+                                             @Validated(OnPatch.class) @RequestBody UserDTO userDto) {
+        if (patchWriteBehindService.isEnabled()) {
+            PatchStatus status = patchWriteBehindService.enqueue(id, userDto);
+            return ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                            .path("/users/patches/{ticketId}")
+                            .buildAndExpand(status.getTicketId())
+                            .toUri())
+                    .body(status);
+        }
         User updatedUser = userService.patchUpdate(id, userDto);
         return ResponseEntity.ok(updatedUser);
     }
 
+    @GetMapping("/patches/{ticketId}")
+    public ResponseEntity<PatchStatus> getPatchStatus(@PathVariable UUID ticketId) {
+        return ResponseEntity.ok(patchWriteBehindService.getStatus(ticketId));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        userService.delete(id);
+        patchWriteBehindService.writeThrough(id, () -> {
+            userService.delete(id);
+            return null;
+        });
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * The same URL serves every encoding in {@link WireFormatConfig#USER_MEDIA_TYPES}, so the encoding is
+     * chosen here rather than by the message converters: it goes into the ETag, and {@code Vary: Accept}
+     * keeps shared caches from answering a JSON client with a stored CBOR body.
+     */
     @GetMapping("/search")
     public ResponseEntity<List<User>> findByBirthDateRange(
             @RequestParam(value = "start", required = false) LocalDate start,
-            @RequestParam(value = "end", required = false) LocalDate end) {
+            @RequestParam(value = "end", required = false) LocalDate end,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest request) {
+        MediaType mediaType = negotiateUserMediaType(accept);
+        // no Last-Modified: HTTP dates have one-second precision, so If-Modified-Since would hide a
+        // second write within the same second, while the ETag keeps the millisecond
+        String eTag = "W/\"" + userService.getLastModified().toEpochMilli() + "-" + mediaType.getSubtype() + "\"";
+        if (request.checkNotModified(eTag)) {
+            // the check has already set the ETag on the response
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
+        }
         List<User> users = userService.findByBirthDateRange(start, end);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(mediaType)
+                .body(users);
+    }
+
+    @GetMapping("/search/count")
+    public ResponseEntity<Long> countByBirthDateRange(
+            @RequestParam(value = "start", required = false) LocalDate start,
+            @RequestParam(value = "end", required = false) LocalDate end) {
+        return ResponseEntity.ok(userService.countByBirthDateRange(start, end));
+    }
+
+    @GetMapping("/filter")
+    public ResponseEntity<List<User>> findByFilter(@Valid UserFilter filter) {
+        List<User> users = userService.findByFilter(filter);
+        return ResponseEntity.ok(users);
+    }
+
+    @GetMapping("/birthdays/upcoming")
+    public ResponseEntity<List<User>> findUpcomingBirthdays(
+            @RequestParam(value = "days", defaultValue = "7") int days) {
+        List<User> users = userService.findUpcomingBirthdays(days);
         return ResponseEntity.ok(users);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/birthdays/turning")
+    public ResponseEntity<List<User>> findTurningAge(
+            @RequestParam(value = "age", required = false) Integer age,
+            @RequestParam(value = "start", required = false) LocalDate start,
+            @RequestParam(value = "end", required = false) LocalDate end) {
+        List<User> users = userService.findTurningAge(age, start, end);
+        return ResponseEntity.ok(users);
+    }
+
+    /**
+     * Picks the encoding the client prefers, falling back to JSON when it accepts none of them.
+     */
+    private static MediaType negotiateUserMediaType(String accept) {
+        List<MediaType> acceptable;
+        try {
+            acceptable = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException ex) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MimeTypeUtils.sortBySpecificity(acceptable);
+        for (MediaType acceptableType : acceptable) {
+            for (MediaType mediaType : WireFormatConfig.USER_MEDIA_TYPES) {
+                if (acceptableType.getQualityValue() > 0 && acceptableType.includes(mediaType)) {
+                    return mediaType;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
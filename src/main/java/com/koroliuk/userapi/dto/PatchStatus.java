@@ -0,0 +1,19 @@
+package com.koroliuk.userapi.dto;
+
+import lombok.*;
+
+import java.util.UUID;
+
+@Getter
+@Builder(toBuilder = true)
+public class PatchStatus {
+
+    public enum State {
+        PENDING, APPLIED, FAILED
+    }
+
+    private final UUID ticketId;
+    private final Long userId;
+    private final State state;
+    private final String message;
+}
@@ -0,0 +1,32 @@
+package com.koroliuk.userapi.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserFilter {
+
+    private String namePrefix;
+
+    private String emailDomain;
+
+    private String addressContains;
+
+    @Min(value = 0, message = "Minimum age must not be negative")
+    private Integer minAge;
+
+    @Min(value = 0, message = "Maximum age must not be negative")
+    private Integer maxAge;
+
+    private Boolean phonePresent;
+
+    private String sort;
+
+    @Positive(message = "Limit must be positive")
+    private Integer limit;
+}
@@ -0,0 +1,74 @@
+package com.koroliuk.userapi.grpc;
+
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@ConditionalOnProperty(value = "grpc.server.enabled", havingValue = "true", matchIfMissing = true)
+public class GrpcServerLifecycle implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(GrpcServerLifecycle.class);
+
+    private final UserGrpcService userGrpcService;
+
+    @Value("${grpc.server.port}")
+    private int port;
+
+    private volatile Server server;
+
+    @Autowired
+    public GrpcServerLifecycle(UserGrpcService userGrpcService) {
+        this.userGrpcService = userGrpcService;
+    }
+
+    @Override
+    public void start() {
+        try {
+            server = NettyServerBuilder.forPort(port)
+                    .addService(userGrpcService)
+                    .build()
+                    .start();
+            log.info("gRPC server started on port {}", server.getPort());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not start gRPC server on port " + port, ex);
+        }
+    }
+
+    @Override
+    public void stop() {
+        Server runningServer = server;
+        if (runningServer == null) {
+            return;
+        }
+        runningServer.shutdown();
+        try {
+            if (!runningServer.awaitTermination(5, TimeUnit.SECONDS)) {
+                runningServer.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            runningServer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    public int getPort() {
+        return server != null ? server.getPort() : port;
+    }
+}
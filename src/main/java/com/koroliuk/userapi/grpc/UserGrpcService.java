@@ -0,0 +1,202 @@
+package com.koroliuk.userapi.grpc;
+
+import com.google.protobuf.Empty;
+import com.koroliuk.userapi.dto.UserDTO;
+import com.koroliuk.userapi.model.User;
+import com.koroliuk.userapi.service.PatchWriteBehindService;
+import com.koroliuk.userapi.service.UserService;
+import com.koroliuk.userapi.validation.OnPatch;
+import com.koroliuk.userapi.validation.UserDTOValidator;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Component
+public class UserGrpcService extends UserServiceGrpc.UserServiceImplBase {
+
+    private final UserService userService;
+    private final PatchWriteBehindService patchWriteBehindService;
+    private final UserDTOValidator validator;
+
+    @Autowired
+    public UserGrpcService(UserService userService, PatchWriteBehindService patchWriteBehindService,
+                           UserDTOValidator validator) {
+        this.userService = userService;
+        this.patchWriteBehindService = patchWriteBehindService;
+        this.validator = validator;
+    }
+
+    @Override
+    public void getUser(GetUserRequest request, StreamObserver<UserMessage> responseObserver) {
+        handle(responseObserver, () -> responseObserver.onNext(toUserMessage(userService.findById(request.getId()))));
+    }
+
+    @Override
+    public void createUser(CreateUserRequest request, StreamObserver<UserMessage> responseObserver) {
+        handle(responseObserver, () -> {
+            UserDTO userDto = toValidUserDto(request.getUser());
+            responseObserver.onNext(toUserMessage(userService.create(userDto)));
+        });
+    }
+
+    @Override
+    public void updateUser(UpdateUserRequest request, StreamObserver<UserMessage> responseObserver) {
+        handle(responseObserver, () -> {
+            UserDTO userDto = toValidUserDto(request.getUser());
+            User user = patchWriteBehindService.writeThrough(request.getId(),
+                    () -> userService.update(request.getId(), userDto));
+            responseObserver.onNext(toUserMessage(user));
+        });
+    }
+
+    @Override
+    public void patchUser(UpdateUserRequest request, StreamObserver<UserMessage> responseObserver) {
+        handle(responseObserver, () -> {
+            UserDTO userDto = toValidUserDto(request.getUser(), OnPatch.class);
+            User user = patchWriteBehindService.writeThrough(request.getId(),
+                    () -> userService.patchUpdate(request.getId(), userDto));
+            responseObserver.onNext(toUserMessage(user));
+        });
+    }
+
+    @Override
+    public void deleteUser(DeleteUserRequest request, StreamObserver<Empty> responseObserver) {
+        handle(responseObserver, () -> {
+            patchWriteBehindService.writeThrough(request.getId(), () -> {
+                userService.delete(request.getId());
+                return null;
+            });
+            responseObserver.onNext(Empty.getDefaultInstance());
+        });
+    }
+
+    /**
+     * Streams matching users as the client reads them: messages are only sent while the call is ready,
+     * and the rest of the result is dropped once the client cancels.
+     */
+    @Override
+    public void findByBirthDateRange(BirthDateRangeRequest request, StreamObserver<UserMessage> responseObserver) {
+        Iterator<User> users;
+        try {
+            LocalDate start = request.hasStart() ? LocalDate.parse(request.getStart()) : null;
+            LocalDate end = request.hasEnd() ? LocalDate.parse(request.getEnd()) : null;
+            users = userService.findByBirthDateRange(start, end).iterator();
+        } catch (RuntimeException ex) {
+            fail(responseObserver, ex);
+            return;
+        }
+        UserStream stream = new UserStream((ServerCallStreamObserver<UserMessage>) responseObserver, users);
+        stream.observer.setOnCancelHandler(stream::cancel);
+        stream.observer.setOnReadyHandler(stream);
+        stream.run();
+    }
+
+    private void handle(StreamObserver<?> responseObserver, Runnable call) {
+        try {
+            call.run();
+            responseObserver.onCompleted();
+        } catch (RuntimeException ex) {
+            fail(responseObserver, ex);
+        }
+    }
+
+    private static void fail(StreamObserver<?> responseObserver, RuntimeException ex) {
+        Status status;
+        if (ex instanceof IllegalArgumentException || ex instanceof DateTimeException) {
+            status = Status.INVALID_ARGUMENT;
+        } else if (ex instanceof EntityNotFoundException) {
+            status = Status.NOT_FOUND;
+        } else if (ex instanceof OptimisticLockingFailureException) {
+            status = Status.ABORTED;
+        } else {
+            status = Status.INTERNAL;
+        }
+        responseObserver.onError(status.withDescription(ex.getMessage()).asRuntimeException());
+    }
+
+    private UserDTO toValidUserDto(UserFields fields, Class<?>... groups) {
+        UserDTO userDto = UserDTO.builder()
+                .email(fields.hasEmail() ? fields.getEmail() : null)
+                .firstName(fields.hasFirstName() ? fields.getFirstName() : null)
+                .lastName(fields.hasLastName() ? fields.getLastName() : null)
+                .birthDate(fields.hasBirthDate() ? LocalDate.parse(fields.getBirthDate()) : null)
+                .address(fields.hasAddress() ? fields.getAddress() : null)
+                .phoneNumber(fields.hasPhoneNumber() ? fields.getPhoneNumber() : null)
+                .build();
+        List<UserDTOValidator.Violation> violations = validator.findViolations(userDto, (Object[]) groups);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(UserDTOValidator.Violation::message)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return userDto;
+    }
+
+    private static UserMessage toUserMessage(User user) {
+        UserMessage.Builder builder = UserMessage.newBuilder();
+        setIfPresent(builder::setId, user.getId());
+        setIfPresent(builder::setEmail, user.getEmail());
+        setIfPresent(builder::setFirstName, user.getFirstName());
+        setIfPresent(builder::setLastName, user.getLastName());
+        setIfPresent(builder::setBirthDate, user.getBirthDate() != null ? user.getBirthDate().toString() : null);
+        setIfPresent(builder::setAddress, user.getAddress());
+        setIfPresent(builder::setPhoneNumber, user.getPhoneNumber());
+        return builder.build();
+    }
+
+    private static <T> void setIfPresent(Consumer<T> setter, T value) {
+        if (value != null) {
+            setter.accept(value);
+        }
+    }
+
+    /**
+     * Sends users while the transport accepts them. Runs on the call's serialized executor, from the
+     * call itself and from every ready notification.
+     */
+    private static final class UserStream implements Runnable {
+
+        private final ServerCallStreamObserver<UserMessage> observer;
+        private Iterator<User> users;
+
+        UserStream(ServerCallStreamObserver<UserMessage> observer, Iterator<User> users) {
+            this.observer = observer;
+            this.users = users;
+        }
+
+        @Override
+        public void run() {
+            if (users == null) {
+                return;
+            }
+            try {
+                while (users.hasNext() && observer.isReady()) {
+                    observer.onNext(toUserMessage(users.next()));
+                }
+                if (!users.hasNext()) {
+                    users = null;
+                    observer.onCompleted();
+                }
+            } catch (RuntimeException ex) {
+                users = null;
+                fail(observer, ex);
+            }
+        }
+
+        void cancel() {
+            users = null;
+        }
+    }
+}
@@ -1,20 +1,36 @@
 package com.koroliuk.userapi.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+
+import java.io.Serializable;
 import java.time.LocalDate;
 
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Entity(name = "users")
-public class User {
+@Table(indexes = {
+        @Index(name = "idx_users_birth_date", columnList = "birth_date"),
+        @Index(name = "idx_users_last_name", columnList = "last_name"),
+        @Index(name = "idx_users_email", columnList = "email"),
+        @Index(name = "idx_users_birth_month_day", columnList = "birth_month_day")
+})
+public class User implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Incremented on every write, so cached copies on other nodes are only replaced by newer ones.
+     * Concurrent writes to one user conflict on it and are retried by the service.
+     */
+    @Version
+    @JsonIgnore
+    private Long version;
+
     private String email;
     @Column(name = "first_name")
     private String firstName;
@@ -29,4 +45,22 @@ public class User {
 
     @Column(name = "phone_number")
     private String phoneNumber;
+
+    /**
+     * Birth date encoded as {@code month * 100 + day}, so birthdays can be looked up
+     * by an index range scan regardless of the birth year.
+     */
+    @JsonIgnore
+    @Column(name = "birth_month_day")
+    private Integer birthMonthDay;
+
+    public static int monthDayOf(LocalDate date) {
+        return date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    @PrePersist
+    @PreUpdate
+    void syncBirthMonthDay() {
+        birthMonthDay = birthDate != null ? monthDayOf(birthDate) : null;
+    }
 }
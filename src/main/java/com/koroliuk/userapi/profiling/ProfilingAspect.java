@@ -0,0 +1,92 @@
+package com.koroliuk.userapi.profiling;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+
+@Aspect
+@Component
+@ConditionalOnProperty(value = "user.profiling.enabled", havingValue = "true")
+public class ProfilingAspect {
+
+    /**
+     * Handler methods only, so {@code @InitBinder} and other controller callbacks neither add to the
+     * controller time nor mark the end of the controller phase early.
+     */
+    @Around("within(com.koroliuk.userapi.controller..*) "
+            + "&& execution(@(org.springframework.web.bind.annotation.*Mapping) * *(..))")
+    public Object profileController(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestProfile profile = RequestProfile.current();
+        if (profile == null) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            profile.record("controller", System.nanoTime() - start);
+            profile.markControllerEnd();
+        }
+    }
+
+    @Around("execution(* com.koroliuk.userapi.validation.UserDTOValidator.validate(Object, org.springframework.validation.Errors, ..))")
+    public Object profileValidation(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestProfile profile = RequestProfile.current();
+        if (profile == null) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            profile.record("validation", System.nanoTime() - start);
+        }
+    }
+
+    @Around("execution(* com.koroliuk.userapi.service.UserService.*(..))")
+    public Object profileService(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestProfile profile = RequestProfile.current();
+        if (profile == null) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            profile.record("service", System.nanoTime() - start);
+        }
+    }
+
+    @Around("execution(* com.koroliuk.userapi.repository.UserRepository+.*(..))")
+    public Object profileRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestProfile profile = RequestProfile.current();
+        if (profile == null) {
+            return joinPoint.proceed();
+        }
+        String name = "repository." + joinPoint.getSignature().getName();
+        int sqlBefore = profile.getSqlCount();
+        long start = System.nanoTime();
+        Object result = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } finally {
+            profile.record(name, System.nanoTime() - start, profile.getSqlCount() - sqlBefore, countRows(result));
+        }
+    }
+
+    private static int countRows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return result == null ? 0 : 1;
+    }
+}
@@ -0,0 +1,45 @@
+package com.koroliuk.userapi.profiling;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Answers requests carrying {@code X-Profile: true} (or {@code X-Profile: alloc} to also report
+ * allocated bytes) with a {@code Server-Timing} header. The response body is buffered so the
+ * header can still be added after serialization has been measured.
+ */
+@Component
+@ConditionalOnProperty(value = "user.profiling.enabled", havingValue = "true")
+public class ProfilingFilter extends OncePerRequestFilter {
+
+    public static final String PROFILE_HEADER = "X-Profile";
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String profile = request.getHeader(PROFILE_HEADER);
+        return !"true".equalsIgnoreCase(profile) && !"alloc".equalsIgnoreCase(profile);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestProfile profile = RequestProfile.start("alloc".equalsIgnoreCase(request.getHeader(PROFILE_HEADER)));
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, responseWrapper);
+        } finally {
+            RequestProfile.clear();
+            responseWrapper.setHeader(SERVER_TIMING_HEADER, profile.toServerTiming());
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+}
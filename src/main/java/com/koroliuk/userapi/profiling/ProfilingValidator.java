@@ -0,0 +1,41 @@
+package com.koroliuk.userapi.profiling;
+
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+
+/**
+ * Delegates to the MVC validator and adds its time to the "validation" entry of the active profile.
+ */
+public class ProfilingValidator implements SmartValidator {
+
+    private final SmartValidator delegate;
+
+    public ProfilingValidator(SmartValidator delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return delegate.supports(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        validate(target, errors, new Object[0]);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        RequestProfile profile = RequestProfile.current();
+        if (profile == null) {
+            delegate.validate(target, errors, validationHints);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            delegate.validate(target, errors, validationHints);
+        } finally {
+            profile.record("validation", System.nanoTime() - start);
+        }
+    }
+}
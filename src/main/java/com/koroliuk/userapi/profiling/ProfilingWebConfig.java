@@ -0,0 +1,51 @@
+package com.koroliuk.userapi.profiling;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(value = "user.profiling.enabled", havingValue = "true")
+public class ProfilingWebConfig implements WebMvcConfigurer {
+
+    private final jakarta.validation.Validator validator;
+
+    @Autowired
+    public ProfilingWebConfig(jakarta.validation.Validator validator) {
+        this.validator = validator;
+    }
+
+    @Bean
+    public TaskDecorator requestProfileTaskDecorator() {
+        return new RequestProfileTaskDecorator();
+    }
+
+    @Override
+    public Validator getValidator() {
+        return new ProfilingValidator(new SpringValidatorAdapter(validator));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                   ModelAndView modelAndView) {
+                RequestProfile profile = RequestProfile.current();
+                if (profile != null) {
+                    profile.markHandlerCompleted();
+                }
+            }
+        });
+    }
+}
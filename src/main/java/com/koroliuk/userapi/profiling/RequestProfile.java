@@ -0,0 +1,133 @@
+package com.koroliuk.userapi.profiling;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Per-request timing breakdown, bound to the request thread while {@code X-Profile} is set, and to the
+ * shard fan-out threads working for it (see {@link RequestProfileTaskDecorator}). Layer durations are
+ * inclusive: the controller entry contains the service entry, which contains the repository entries.
+ * Repository calls that run in parallel on several shards add up their durations.
+ */
+public final class RequestProfile {
+
+    private static final ThreadLocal<RequestProfile> CURRENT = new ThreadLocal<>();
+    // counted per thread, so parallel shard queries do not see each other's statements
+    private static final ThreadLocal<int[]> THREAD_SQL_COUNT = ThreadLocal.withInitial(() -> new int[1]);
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = threadMXBean();
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final long startNanos = System.nanoTime();
+    private final long startAllocatedBytes;
+    private long controllerEndNanos;
+
+    private RequestProfile(boolean trackAllocations) {
+        this.startAllocatedBytes = trackAllocations && THREAD_MX_BEAN != null
+                ? THREAD_MX_BEAN.getCurrentThreadAllocatedBytes()
+                : -1;
+    }
+
+    public static RequestProfile start(boolean trackAllocations) {
+        RequestProfile profile = new RequestProfile(trackAllocations);
+        CURRENT.set(profile);
+        return profile;
+    }
+
+    public static RequestProfile current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds a profile started on another thread to the current one.
+     */
+    public static void attach(RequestProfile profile) {
+        CURRENT.set(profile);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Number of SQL statements prepared by the current thread, for measuring the statements of a call.
+     */
+    public int getSqlCount() {
+        return THREAD_SQL_COUNT.get()[0];
+    }
+
+    public void incrementSqlCount() {
+        THREAD_SQL_COUNT.get()[0]++;
+    }
+
+    public void record(String name, long durationNanos) {
+        record(name, durationNanos, 0, -1);
+    }
+
+    public synchronized void record(String name, long durationNanos, int sql, int rows) {
+        Entry entry = entries.computeIfAbsent(name, key -> new Entry());
+        entry.calls++;
+        entry.nanos += durationNanos;
+        entry.sql += sql;
+        if (rows >= 0) {
+            entry.rows = Math.max(entry.rows, 0) + rows;
+        }
+    }
+
+    public void markControllerEnd() {
+        controllerEndNanos = System.nanoTime();
+    }
+
+    public void markHandlerCompleted() {
+        if (controllerEndNanos > 0) {
+            record("serialization", System.nanoTime() - controllerEndNanos);
+        }
+    }
+
+    public synchronized String toServerTiming() {
+        record("total", System.nanoTime() - startNanos);
+        String timing = entries.entrySet().stream()
+                .map(entry -> entry.getKey() + ";dur=" + millis(entry.getValue().nanos) + entry.getValue().describe())
+                .collect(Collectors.joining(", "));
+        if (startAllocatedBytes >= 0) {
+            long allocated = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() - startAllocatedBytes;
+            timing += ", alloc;desc=\"bytes=" + allocated + "\"";
+        }
+        return timing;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean;
+        }
+        return null;
+    }
+
+    private static final class Entry {
+        private int calls;
+        private long nanos;
+        private int sql;
+        private int rows = -1;
+
+        private String describe() {
+            if (sql == 0 && rows < 0 && calls == 1) {
+                return "";
+            }
+            StringBuilder desc = new StringBuilder(";desc=\"calls=").append(calls);
+            if (sql > 0 || rows >= 0) {
+                desc.append(" sql=").append(sql);
+            }
+            if (rows >= 0) {
+                desc.append(" rows=").append(rows);
+            }
+            return desc.append('"').toString();
+        }
+    }
+}
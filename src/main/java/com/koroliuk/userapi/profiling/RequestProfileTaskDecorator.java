@@ -0,0 +1,26 @@
+package com.koroliuk.userapi.profiling;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Carries the {@link RequestProfile} of the submitting thread into tasks, so repository calls that
+ * {@link com.koroliuk.userapi.sharding.ShardRouter} fans out to its executor are still profiled.
+ */
+public class RequestProfileTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        RequestProfile profile = RequestProfile.current();
+        if (profile == null) {
+            return runnable;
+        }
+        return () -> {
+            RequestProfile.attach(profile);
+            try {
+                runnable.run();
+            } finally {
+                RequestProfile.clear();
+            }
+        };
+    }
+}
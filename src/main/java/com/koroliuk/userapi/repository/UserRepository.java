@@ -1,7 +1,9 @@
 package com.koroliuk.userapi.repository;
 
 import com.koroliuk.userapi.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -9,8 +11,20 @@ import java.util.List;
 
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
     List<User> findByBirthDateBetween(LocalDate start, LocalDate end);
     List<User> findByBirthDateAfter(LocalDate start);
     List<User> findByBirthDateBefore(LocalDate end);
+    List<User> findByBirthMonthDayBetween(int start, int end);
+    long countByBirthDateBetween(LocalDate start, LocalDate end);
+    long countByBirthDateAfter(LocalDate start);
+    long countByBirthDateBefore(LocalDate end);
+    List<BirthDateView> findByBirthDateNotNull();
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    interface BirthDateView {
+        Long getId();
+        LocalDate getBirthDate();
+        Long getVersion();
+    }
 }
@@ -0,0 +1,48 @@
+package com.koroliuk.userapi.repository;
+
+import com.koroliuk.userapi.model.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Building blocks for {@link UserRepository} filter queries. Values are always bound as
+ * parameters, so every combination of filters maps to one cacheable statement shape.
+ */
+public final class UserSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private UserSpecifications() {
+    }
+
+    public static Specification<User> lastNameStartsWith(String prefix) {
+        return (root, query, cb) -> cb.like(root.get("lastName"), escapeLike(prefix) + "%", LIKE_ESCAPE);
+    }
+
+    public static Specification<User> emailDomainIs(String domain) {
+        return (root, query, cb) -> cb.like(root.get("email"), "%@" + escapeLike(domain), LIKE_ESCAPE);
+    }
+
+    public static Specification<User> addressContains(String text) {
+        return (root, query, cb) -> cb.like(root.get("address"), "%" + escapeLike(text) + "%", LIKE_ESCAPE);
+    }
+
+    public static Specification<User> bornOnOrBefore(LocalDate date) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("birthDate"), date);
+    }
+
+    public static Specification<User> bornAfter(LocalDate date) {
+        return (root, query, cb) -> cb.greaterThan(root.get("birthDate"), date);
+    }
+
+    public static Specification<User> hasPhoneNumber(boolean present) {
+        return (root, query, cb) -> present
+                ? cb.and(cb.isNotNull(root.get("phoneNumber")), cb.notEqual(root.get("phoneNumber"), ""))
+                : cb.or(cb.isNull(root.get("phoneNumber")), cb.equal(root.get("phoneNumber"), ""));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,209 @@
+package com.koroliuk.userapi.service;
+
+import com.koroliuk.userapi.repository.UserRepository;
+import com.koroliuk.userapi.sharding.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * In-process read model of user birth dates, loaded on startup when {@code user.read-model.enabled=true}.
+ * Ids are kept in primitive arrays sorted by (epoch day, id), so a birth date range resolves to two binary
+ * searches. Readers use an immutable snapshot without locking; writers copy the arrays, so each update is
+ * O(n), and the service only sends writes that change a birth date. Updates carry the row's
+ * {@link com.koroliuk.userapi.model.User#getVersion() version}, so one that arrives after a newer one is
+ * ignored, and deleted ids are remembered because ids are never reused. Only writes made through this
+ * instance are applied, so replicas sharing a database drift apart until {@link #load()} runs again.
+ */
+@Component
+public class BirthDateIndex implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BirthDateIndex.class);
+    private static final Snapshot EMPTY = new Snapshot(new int[0], new long[0], new long[0]);
+
+    private final UserRepository userRepository;
+    private final ShardRouter shardRouter;
+    private final boolean enabled;
+    private final Object writeLock = new Object();
+    private final Set<Long> deletedIds = new HashSet<>();
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public BirthDateIndex(UserRepository userRepository, ShardRouter shardRouter,
+                          @Value("${user.read-model.enabled:false}") boolean enabled) {
+        this.userRepository = userRepository;
+        this.shardRouter = shardRouter;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            load();
+        }
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * Rebuilds the index from all shards. Writers wait for the load, so a write that the load
+     * missed is applied right after it.
+     */
+    public void load() {
+        synchronized (writeLock) {
+            List<UserRepository.BirthDateView> rows = new ArrayList<>(shardRouter.fanOut(
+                    userRepository::findByBirthDateNotNull, UserRepository.BirthDateView::getId));
+            rows.sort(Comparator.comparing(UserRepository.BirthDateView::getBirthDate)
+                    .thenComparing(UserRepository.BirthDateView::getId));
+            int[] epochDays = new int[rows.size()];
+            long[] ids = new long[rows.size()];
+            long[] versions = new long[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                epochDays[i] = Math.toIntExact(rows.get(i).getBirthDate().toEpochDay());
+                ids[i] = rows.get(i).getId();
+                versions[i] = rows.get(i).getVersion() != null ? rows.get(i).getVersion() : 0;
+            }
+            snapshot = new Snapshot(epochDays, ids, versions);
+            log.info("Loaded birth dates of {} users", ids.length);
+        }
+    }
+
+    public int count(long fromEpochDay, long toEpochDay) {
+        Snapshot current = currentSnapshot();
+        return Math.max(0, current.upperBound(toEpochDay) - current.lowerBound(fromEpochDay));
+    }
+
+    /**
+     * Returns the ids of users born between the given days, both inclusive, ordered by birth date and id.
+     */
+    public long[] findIds(long fromEpochDay, long toEpochDay) {
+        Snapshot current = currentSnapshot();
+        int from = current.lowerBound(fromEpochDay);
+        int to = current.upperBound(toEpochDay);
+        return from < to ? Arrays.copyOfRange(current.ids, from, to) : new long[0];
+    }
+
+    /**
+     * Applies the birth date saved with the given row version, unless a newer version is already applied.
+     */
+    public void put(long id, LocalDate birthDate, long version) {
+        synchronized (writeLock) {
+            if (snapshot == null || deletedIds.contains(id)) {
+                return;
+            }
+            int position = snapshot.indexOf(id);
+            if (position >= 0 && snapshot.versions[position] >= version) {
+                return;
+            }
+            Snapshot updated = position >= 0 ? snapshot.without(position) : snapshot;
+            snapshot = birthDate != null
+                    ? updated.with(Math.toIntExact(birthDate.toEpochDay()), id, version)
+                    : updated;
+        }
+    }
+
+    public void remove(long id) {
+        synchronized (writeLock) {
+            deletedIds.add(id);
+            if (snapshot != null) {
+                int position = snapshot.indexOf(id);
+                if (position >= 0) {
+                    snapshot = snapshot.without(position);
+                }
+            }
+        }
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : EMPTY;
+    }
+
+    private record Snapshot(int[] epochDays, long[] ids, long[] versions) {
+
+        int indexOf(long id) {
+            for (int position = 0; position < ids.length; position++) {
+                if (ids[position] == id) {
+                    return position;
+                }
+            }
+            return -1;
+        }
+
+        int lowerBound(long epochDay) {
+            int low = 0;
+            int high = epochDays.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (epochDays[mid] < epochDay) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int upperBound(long epochDay) {
+            int low = 0;
+            int high = epochDays.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (epochDays[mid] <= epochDay) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        Snapshot with(int epochDay, long id, long version) {
+            int position = lowerBound(epochDay);
+            while (position < ids.length && epochDays[position] == epochDay && ids[position] < id) {
+                position++;
+            }
+            int[] newEpochDays = new int[epochDays.length + 1];
+            long[] newIds = new long[ids.length + 1];
+            long[] newVersions = new long[versions.length + 1];
+            System.arraycopy(epochDays, 0, newEpochDays, 0, position);
+            System.arraycopy(ids, 0, newIds, 0, position);
+            System.arraycopy(versions, 0, newVersions, 0, position);
+            newEpochDays[position] = epochDay;
+            newIds[position] = id;
+            newVersions[position] = version;
+            System.arraycopy(epochDays, position, newEpochDays, position + 1, epochDays.length - position);
+            System.arraycopy(ids, position, newIds, position + 1, ids.length - position);
+            System.arraycopy(versions, position, newVersions, position + 1, versions.length - position);
+            return new Snapshot(newEpochDays, newIds, newVersions);
+        }
+
+        Snapshot without(int position) {
+            int[] newEpochDays = new int[epochDays.length - 1];
+            long[] newIds = new long[ids.length - 1];
+            long[] newVersions = new long[versions.length - 1];
+            System.arraycopy(epochDays, 0, newEpochDays, 0, position);
+            System.arraycopy(ids, 0, newIds, 0, position);
+            System.arraycopy(versions, 0, newVersions, 0, position);
+            System.arraycopy(epochDays, position + 1, newEpochDays, position, newEpochDays.length - position);
+            System.arraycopy(ids, position + 1, newIds, position, newIds.length - position);
+            System.arraycopy(versions, position + 1, newVersions, position, newVersions.length - position);
+            return new Snapshot(newEpochDays, newIds, newVersions);
+        }
+    }
+}
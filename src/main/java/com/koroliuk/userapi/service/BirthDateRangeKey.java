@@ -0,0 +1,33 @@
+package com.koroliuk.userapi.service;
+
+import java.time.LocalDate;
+
+/**
+ * Normalized form of a birth date search: inclusive epoch-day bounds. A single bound is exclusive, as in
+ * {@code findByBirthDateAfter/Before}, while two bounds are inclusive; the upper bound is capped at today
+ * because birth dates lie in the past. Equal searches therefore share a cache entry. Without bounds the
+ * search also returns users without a birth date, which {@link #ALL} keeps apart from every bounded search.
+ */
+public record BirthDateRangeKey(long fromEpochDay, long toEpochDay) {
+
+    public static final BirthDateRangeKey ALL = new BirthDateRangeKey(Long.MIN_VALUE, Long.MAX_VALUE);
+
+    public static BirthDateRangeKey of(LocalDate start, LocalDate end) {
+        if (start == null && end == null) {
+            return ALL;
+        }
+        long from = Long.MIN_VALUE;
+        if (start != null) {
+            from = end == null ? start.toEpochDay() + 1 : start.toEpochDay();
+        }
+        long to = LocalDate.now().toEpochDay();
+        if (end != null) {
+            to = Math.min(to, start == null ? end.toEpochDay() - 1 : end.toEpochDay());
+        }
+        return new BirthDateRangeKey(from, to);
+    }
+
+    public boolean isBounded() {
+        return !equals(ALL);
+    }
+}
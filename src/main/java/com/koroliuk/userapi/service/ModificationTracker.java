@@ -0,0 +1,77 @@
+package com.koroliuk.userapi.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.IMap;
+import com.koroliuk.userapi.config.HazelcastConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time of the last write to any user, used for the search ETag and as part of the search cache key.
+ * With {@code user.cache.enabled} it is kept in the Hazelcast cluster, so a write on one node moves the
+ * ETag and invalidates the cached searches of every node. The time only moves forward, by at least a
+ * millisecond per write.
+ */
+@Component
+public class ModificationTracker {
+
+    private static final String USERS_KEY = "users";
+
+    private final IMap<String, Long> modifications;
+    private final AtomicLong localLastModified = new AtomicLong(System.currentTimeMillis());
+
+    @Autowired
+    public ModificationTracker(ObjectProvider<HazelcastInstance> hazelcastInstance) {
+        HazelcastInstance instance = hazelcastInstance.getIfAvailable();
+        this.modifications = instance != null ? instance.getMap(HazelcastConfig.MODIFICATIONS_MAP) : null;
+        if (modifications != null) {
+            modifications.putIfAbsent(USERS_KEY, localLastModified.get());
+        }
+    }
+
+    public Instant getLastModified() {
+        if (modifications == null) {
+            return Instant.ofEpochMilli(localLastModified.get());
+        }
+        Long lastModified = modifications.get(USERS_KEY);
+        if (lastModified == null) {
+            lastModified = modifications.executeOnKey(USERS_KEY, new Advance(System.currentTimeMillis()));
+        }
+        return Instant.ofEpochMilli(lastModified);
+    }
+
+    public void markModified() {
+        long now = System.currentTimeMillis();
+        if (modifications == null) {
+            localLastModified.accumulateAndGet(now, Advance::next);
+        } else {
+            modifications.executeOnKey(USERS_KEY, new Advance(now));
+        }
+    }
+
+    static final class Advance implements EntryProcessor<String, Long, Long> {
+
+        private final long now;
+
+        Advance(long now) {
+            this.now = now;
+        }
+
+        @Override
+        public Long process(Map.Entry<String, Long> entry) {
+            long lastModified = entry.getValue() != null ? next(entry.getValue(), now) : now;
+            entry.setValue(lastModified);
+            return lastModified;
+        }
+
+        static long next(long current, long now) {
+            return Math.max(current + 1, now);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.koroliuk.userapi.service;
+
+import com.koroliuk.userapi.dto.PatchStatus;
+import com.koroliuk.userapi.dto.UserDTO;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Buffers PATCH requests per user id and applies all patches received within
+ * {@code user.patch.write-behind.window-ms} as one merged {@link UserService#patchUpdate} call.
+ * If the merged patch is rejected, the patches are applied one by one so each ticket gets its own outcome.
+ * Every id is always flushed by the same single-threaded executor, so patches to one user
+ * are applied in arrival order. PUT and DELETE requests, and every gRPC write, go through
+ * {@link #writeThrough} to keep their place in that order.
+ */
+@Service
+public class PatchWriteBehindService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatchWriteBehindService.class);
+    private static final int MAX_TRACKED_STATUSES = 10_000;
+
+    private final UserService userService;
+    private final boolean enabled;
+    private final long windowMs;
+    private final ScheduledExecutorService[] executors;
+    private final Map<Long, PendingPatch> pendingPatches = new ConcurrentHashMap<>();
+    private final Map<UUID, PatchStatus> statuses = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, PatchStatus> eldest) {
+            return size() > MAX_TRACKED_STATUSES;
+        }
+    });
+
+    @Autowired
+    public PatchWriteBehindService(UserService userService,
+                                   @Value("${user.patch.write-behind.enabled}") boolean enabled,
+                                   @Value("${user.patch.write-behind.window-ms}") long windowMs,
+                                   @Value("${user.patch.write-behind.threads}") int threads) {
+        this.userService = userService;
+        this.enabled = enabled;
+        this.windowMs = windowMs;
+        this.executors = new ScheduledExecutorService[enabled ? threads : 0];
+        for (int i = 0; i < executors.length; i++) {
+            executors[i] = Executors.newSingleThreadScheduledExecutor();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public PatchStatus enqueue(Long id, UserDTO patch) {
+        if (!enabled) {
+            throw new IllegalStateException("Write-behind mode for patches is disabled");
+        }
+        PatchStatus status = PatchStatus.builder()
+                .ticketId(UUID.randomUUID())
+                .userId(id)
+                .state(PatchStatus.State.PENDING)
+                .build();
+        statuses.put(status.getTicketId(), status);
+        pendingPatches.compute(id, (key, pending) -> {
+            if (pending == null) {
+                PendingPatch created = new PendingPatch(patch, status.getTicketId());
+                created.scheduledFlush = executorFor(id).schedule(() -> flush(id), windowMs, TimeUnit.MILLISECONDS);
+                return created;
+            }
+            return pending.merge(patch, status.getTicketId());
+        });
+        return status;
+    }
+
+    /**
+     * Runs a synchronous write on the executor that flushes the user's patches, after applying the
+     * patch still pending for the user, so an earlier PATCH can neither undo a PUT nor fail on a
+     * deleted user. Runs the write directly when write-behind mode is off.
+     */
+    public <T> T writeThrough(Long id, Supplier<T> write) {
+        if (!enabled) {
+            return write.get();
+        }
+        Future<T> result = executorFor(id).submit(() -> {
+            PendingPatch pending = pendingPatches.get(id);
+            if (pending != null) {
+                pending.scheduledFlush.cancel(false);
+            }
+            flush(id);
+            return write.get();
+        });
+        try {
+            return result.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to write user " + id, ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing user " + id, ex);
+        }
+    }
+
+    public PatchStatus getStatus(UUID ticketId) {
+        PatchStatus status = statuses.get(ticketId);
+        if (status == null) {
+            throw new EntityNotFoundException("Patch with ticket " + ticketId + " not found");
+        }
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pendingPatches.forEach((id, pending) -> {
+            if (pending.scheduledFlush.cancel(false)) {
+                executorFor(id).execute(() -> flush(id));
+            }
+        });
+        for (ScheduledExecutorService executor : executors) {
+            executor.shutdown();
+        }
+        for (ScheduledExecutorService executor : executors) {
+            try {
+                if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("Timed out while flushing pending patches");
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void flush(Long id) {
+        PendingPatch pending = pendingPatches.remove(id);
+        if (pending == null) {
+            return;
+        }
+        try {
+            userService.patchUpdate(id, pending.patch);
+            pending.tickets.forEach(ticket -> complete(ticket.id(), PatchStatus.State.APPLIED, null));
+        } catch (RuntimeException ex) {
+            if (pending.tickets.size() == 1) {
+                log.warn("Failed to apply patch to user {}", id, ex);
+                complete(pending.tickets.get(0).id(), PatchStatus.State.FAILED, ex.getMessage());
+                return;
+            }
+            log.info("Merged patch for user {} failed, applying {} patches one by one", id, pending.tickets.size());
+            for (Ticket ticket : pending.tickets) {
+                try {
+                    userService.patchUpdate(id, ticket.patch());
+                    complete(ticket.id(), PatchStatus.State.APPLIED, null);
+                } catch (RuntimeException ticketEx) {
+                    log.warn("Failed to apply patch {} to user {}", ticket.id(), id, ticketEx);
+                    complete(ticket.id(), PatchStatus.State.FAILED, ticketEx.getMessage());
+                }
+            }
+        }
+    }
+
+    private void complete(UUID ticketId, PatchStatus.State state, String message) {
+        statuses.computeIfPresent(ticketId, (key, status) -> status.toBuilder()
+                .state(state)
+                .message(message)
+                .build());
+    }
+
+    private ScheduledExecutorService executorFor(Long id) {
+        return executors[Math.floorMod(id.hashCode(), executors.length)];
+    }
+
+    private record Ticket(UUID id, UserDTO patch) {
+    }
+
+    private static final class PendingPatch {
+        private final UserDTO patch = UserDTO.builder().build();
+        private final List<Ticket> tickets = new ArrayList<>();
+        private ScheduledFuture<?> scheduledFlush;
+
+        private PendingPatch(UserDTO patch, UUID ticketId) {
+            merge(patch, ticketId);
+        }
+
+        private PendingPatch merge(UserDTO newer, UUID ticketId) {
+            setIfPresent(patch::setEmail, newer.getEmail());
+            setIfPresent(patch::setFirstName, newer.getFirstName());
+            setIfPresent(patch::setLastName, newer.getLastName());
+            setIfPresent(patch::setBirthDate, newer.getBirthDate());
+            setIfPresent(patch::setAddress, newer.getAddress());
+            setIfPresent(patch::setPhoneNumber, newer.getPhoneNumber());
+            tickets.add(new Ticket(ticketId, newer));
+            return this;
+        }
+
+        private static <T> void setIfPresent(Consumer<T> setter, T value) {
+            if (value != null) {
+                setter.accept(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.koroliuk.userapi.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.IMap;
+import com.koroliuk.userapi.config.HazelcastConfig;
+import com.koroliuk.userapi.model.User;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Two-tier cache of users by id: a per-node near cache in front of a Hazelcast map shared by all
+ * replicas. Any change to the shared map invalidates the near caches of every node. Cached users
+ * are shared instances and must not be modified. Deleted users are kept as tombstones until the entry
+ * expires, so a read that started before the delete cannot put the user back. Does nothing when
+ * {@code user.cache.enabled} is off.
+ */
+@Component
+public class UserCache {
+
+    private final IMap<Long, CachedUser> users;
+
+    @Autowired
+    public UserCache(ObjectProvider<HazelcastInstance> hazelcastInstance) {
+        HazelcastInstance instance = hazelcastInstance.getIfAvailable();
+        this.users = instance != null ? instance.getMap(HazelcastConfig.USERS_MAP) : null;
+    }
+
+    public Optional<User> get(Long id) {
+        CachedUser cached = users != null ? users.get(id) : null;
+        return cached != null ? Optional.ofNullable(cached.user()) : Optional.empty();
+    }
+
+    /**
+     * Stores the user unless the cache already holds a newer version of it or a tombstone, so a slow
+     * reader cannot overwrite the result of a later write or delete.
+     */
+    public void put(User user) {
+        if (users != null) {
+            users.executeOnKey(user.getId(), new PutIfNewer(user));
+        }
+    }
+
+    /**
+     * Replaces the user by a tombstone. Ids are never reused, so no later put for the id is accepted.
+     */
+    public void markDeleted(Long id) {
+        if (users != null) {
+            users.set(id, CachedUser.DELETED);
+        }
+    }
+
+    record CachedUser(User user) implements Serializable {
+
+        static final CachedUser DELETED = new CachedUser(null);
+    }
+
+    static final class PutIfNewer implements EntryProcessor<Long, CachedUser, Void> {
+
+        private final User user;
+
+        PutIfNewer(User user) {
+            this.user = user;
+        }
+
+        @Override
+        public Void process(Map.Entry<Long, CachedUser> entry) {
+            CachedUser current = entry.getValue();
+            if (current == null || current.user() != null && versionOf(current.user()) <= versionOf(user)) {
+                entry.setValue(new CachedUser(user));
+            }
+            return null;
+        }
+
+        private static long versionOf(User user) {
+            return user.getVersion() != null ? user.getVersion() : -1;
+        }
+    }
+}
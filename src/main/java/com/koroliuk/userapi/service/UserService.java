@@ -1,15 +1,23 @@
 package com.koroliuk.userapi.service;
 
 import com.koroliuk.userapi.dto.UserDTO;
+import com.koroliuk.userapi.dto.UserFilter;
 import com.koroliuk.userapi.model.User;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 
 public interface UserService {
+    User findById(Long id);
     User create(UserDTO userDto);
     User update(Long id, UserDTO userDto);
     User patchUpdate(Long id, UserDTO userDto);
     void delete(Long id);
     List<User> findByBirthDateRange(LocalDate start, LocalDate end);
+    long countByBirthDateRange(LocalDate start, LocalDate end);
+    List<User> findByFilter(UserFilter filter);
+    List<User> findUpcomingBirthdays(int days);
+    List<User> findTurningAge(Integer age, LocalDate start, LocalDate end);
+    Instant getLastModified();
 }
\ No newline at end of file
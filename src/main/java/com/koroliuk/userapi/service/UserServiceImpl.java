@@ -1,38 +1,117 @@
 package com.koroliuk.userapi.service;
 
 import com.koroliuk.userapi.dto.UserDTO;
+import com.koroliuk.userapi.dto.UserFilter;
 import com.koroliuk.userapi.model.User;
 import com.koroliuk.userapi.repository.UserRepository;
+import com.koroliuk.userapi.sharding.ShardRouter;
+import com.koroliuk.userapi.sharding.SnowflakeIdGenerator;
 import com.koroliuk.userapi.validation.UpdateUtils;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
+import java.text.Collator;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.Month;
 import java.time.Period;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+import static com.koroliuk.userapi.repository.UserSpecifications.addressContains;
+import static com.koroliuk.userapi.repository.UserSpecifications.bornAfter;
+import static com.koroliuk.userapi.repository.UserSpecifications.bornOnOrBefore;
+import static com.koroliuk.userapi.repository.UserSpecifications.emailDomainIs;
+import static com.koroliuk.userapi.repository.UserSpecifications.hasPhoneNumber;
+import static com.koroliuk.userapi.repository.UserSpecifications.lastNameStartsWith;
 
 @Service
 public class UserServiceImpl implements UserService {
 
+    public static final String BIRTH_DATE_SEARCH_CACHE = "usersByBirthDateRange";
+    private static final int FETCH_BATCH_SIZE = 500;
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private static final Comparator<User> BY_BIRTH_DATE = Comparator
+            .comparing(User::getBirthDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(User::getId);
+
+    // indexed columns only
+    private static final Set<String> SORT_KEYS = Set.of("id", "birthDate", "lastName", "email");
+
     private final UserRepository userRepository;
+    private final ShardRouter shardRouter;
+    private final SnowflakeIdGenerator idGenerator;
+    private final UserCache userCache;
+    private final BirthDateIndex birthDateIndex;
+    private final ModificationTracker modificationTracker;
 
     @Value("${user.min.age}")
     private int minimumAge;
 
+    @Value("${user.search.default-limit}")
+    private int defaultSearchLimit;
+
+    @Value("${user.search.max-limit}")
+    private int maxSearchLimit;
+
+    @Value("${user.search.min-name-prefix-length}")
+    private int minNamePrefixLength;
+
+    @Value("${user.search.max-age-span}")
+    private int maxAgeSpan;
+
+    @Value("${user.search.collation:}")
+    private String collation;
+
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, ShardRouter shardRouter, SnowflakeIdGenerator idGenerator,
+                           UserCache userCache, BirthDateIndex birthDateIndex,
+                           ModificationTracker modificationTracker) {
         this.userRepository = userRepository;
+        this.shardRouter = shardRouter;
+        this.idGenerator = idGenerator;
+        this.userCache = userCache;
+        this.birthDateIndex = birthDateIndex;
+        this.modificationTracker = modificationTracker;
+    }
+
+    @Override
+    public User findById(Long id) {
+        return userCache.get(id).orElseGet(() -> {
+            User user = shardRouter.onShardFor(id, () -> userRepository.findById(id))
+                    .orElseThrow(() -> new EntityNotFoundException("User with id " + id + " not found"));
+            userCache.put(user);
+            return user;
+        });
     }
 
     @Override
+    @CacheEvict(value = BIRTH_DATE_SEARCH_CACHE, allEntries = true)
     public User create(UserDTO userDto) {
         if (!isAgeValid(userDto.getBirthDate())) {
             throw new IllegalArgumentException("User must be at least " + minimumAge + " years old.");
         }
 
         User user = User.builder()
+                .id(idGenerator.nextId())
                 .email(userDto.getEmail())
                 .firstName(userDto.getFirstName())
                 .lastName(userDto.getLastName())
@@ -40,13 +119,47 @@ public class UserServiceImpl implements UserService {
                 .address(userDto.getAddress())
                 .phoneNumber(userDto.getPhoneNumber())
                 .build();
-        return userRepository.save(user);
+        User savedUser = shardRouter.onShardFor(user.getId(), () -> userRepository.save(user));
+        userCache.put(savedUser);
+        birthDateIndex.put(savedUser.getId(), savedUser.getBirthDate(), savedUser.getVersion());
+        markModified();
+        return savedUser;
     }
 
     @Override
+    @CacheEvict(value = BIRTH_DATE_SEARCH_CACHE, allEntries = true)
     public User update(Long id, UserDTO userDto) {
+        SavedUser saved = writeOnShard(id, () -> updateOnShard(id, userDto));
+        User savedUser = saved.user();
+        userCache.put(savedUser);
+        if (saved.birthDateChanged()) {
+            birthDateIndex.put(id, savedUser.getBirthDate(), savedUser.getVersion());
+        }
+        markModified();
+        return savedUser;
+    }
+
+    /**
+     * Runs a read-modify-write of one user on its shard. The {@link User#getVersion() version} makes
+     * concurrent writes to the same user conflict; the losing write re-reads the row and applies its
+     * change again, so the last writer wins. Gives up after {@value #MAX_WRITE_ATTEMPTS} attempts.
+     */
+    private <T> T writeOnShard(Long id, Supplier<T> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return shardRouter.onShardFor(id, write);
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt == MAX_WRITE_ATTEMPTS) {
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    private SavedUser updateOnShard(Long id, UserDTO userDto) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("User with id " + id + " not found"));
+        LocalDate previousBirthDate = user.getBirthDate();
         if (isAgeValid(userDto.getBirthDate())) {
             user.setBirthDate(userDto.getBirthDate());
         } else {
@@ -58,12 +171,26 @@ public class UserServiceImpl implements UserService {
         user.setAddress(userDto.getAddress());
         user.setPhoneNumber(userDto.getPhoneNumber());
 
-        return userRepository.save(user);
+        return new SavedUser(userRepository.save(user), previousBirthDate);
     }
 
+    @Override
+    @CacheEvict(value = BIRTH_DATE_SEARCH_CACHE, allEntries = true)
     public User patchUpdate(Long id, UserDTO userDto) {
+        SavedUser saved = writeOnShard(id, () -> patchUpdateOnShard(id, userDto));
+        User savedUser = saved.user();
+        userCache.put(savedUser);
+        if (saved.birthDateChanged()) {
+            birthDateIndex.put(id, savedUser.getBirthDate(), savedUser.getVersion());
+        }
+        markModified();
+        return savedUser;
+    }
+
+    private SavedUser patchUpdateOnShard(Long id, UserDTO userDto) {
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("User with id " + id + " not found"));
+        LocalDate previousBirthDate = existingUser.getBirthDate();
 
         UpdateUtils.updateIfChanged(existingUser::setEmail, userDto.getEmail(), existingUser::getEmail);
         UpdateUtils.updateIfChanged(existingUser::setFirstName, userDto.getFirstName(), existingUser::getFirstName);
@@ -74,23 +201,93 @@ public class UserServiceImpl implements UserService {
         if (userDto.getBirthDate() != null && isBirthDateChangedAndValid(existingUser.getBirthDate(), userDto.getBirthDate())) {
             existingUser.setBirthDate(userDto.getBirthDate());
         }
-        return userRepository.save(existingUser);
+        return new SavedUser(userRepository.save(existingUser), previousBirthDate);
     }
 
     @Override
+    @CacheEvict(value = BIRTH_DATE_SEARCH_CACHE, allEntries = true)
     public void delete(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new EntityNotFoundException("User with id " + id + " not found");
-        }
-        userRepository.deleteById(id);
+        writeOnShard(id, () -> {
+            if (!userRepository.existsById(id)) {
+                throw new EntityNotFoundException("User with id " + id + " not found");
+            }
+            userRepository.deleteById(id);
+            return null;
+        });
+        userCache.markDeleted(id);
+        birthDateIndex.remove(id);
+        markModified();
     }
 
     @Override
+    @Cacheable(value = BIRTH_DATE_SEARCH_CACHE,
+            key = "{@modificationTracker.lastModified, T(com.koroliuk.userapi.service.BirthDateRangeKey).of(#start, #end)}")
     public List<User> findByBirthDateRange(LocalDate start, LocalDate end) {
+        if (start != null && end != null && start.isAfter(end)) {
+            throw new IllegalArgumentException("The 'from' date must be before the 'to' date.");
+        }
+        BirthDateRangeKey range = BirthDateRangeKey.of(start, end);
+        if (birthDateIndex.isReady() && range.isBounded()) {
+            return findAllByIdInOrder(birthDateIndex.findIds(range.fromEpochDay(), range.toEpochDay()));
+        }
+        List<User> users = shardRouter.fanOut(() -> findByBirthDateRangeOnShard(start, end), User::getId);
+        return users.stream().sorted(BY_BIRTH_DATE).toList();
+    }
+
+    @Override
+    public long countByBirthDateRange(LocalDate start, LocalDate end) {
+        if (start != null && end != null && start.isAfter(end)) {
+            throw new IllegalArgumentException("The 'from' date must be before the 'to' date.");
+        }
+        BirthDateRangeKey range = BirthDateRangeKey.of(start, end);
+        if (birthDateIndex.isReady() && range.isBounded()) {
+            return birthDateIndex.count(range.fromEpochDay(), range.toEpochDay());
+        }
+        return shardRouter.fanOut(() -> List.of(countByBirthDateRangeOnShard(start, end))).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    private long countByBirthDateRangeOnShard(LocalDate start, LocalDate end) {
         if (start != null && end != null) {
-            if (start.isAfter(end)) {
-                throw new IllegalArgumentException("The 'from' date must be before the 'to' date.");
+            return userRepository.countByBirthDateBetween(start, end);
+        } else if (start != null) {
+            return userRepository.countByBirthDateAfter(start);
+        } else if (end != null) {
+            return userRepository.countByBirthDateBefore(end);
+        } else {
+            return userRepository.count();
+        }
+    }
+
+    /**
+     * Loads the users in batches, one query per shard and batch, and returns them in the order of
+     * the ids. Users deleted since the ids were read are skipped.
+     */
+    private List<User> findAllByIdInOrder(long[] ids) {
+        List<User> users = new ArrayList<>(ids.length);
+        for (int from = 0; from < ids.length; from += FETCH_BATCH_SIZE) {
+            Map<Integer, List<Long>> idsByShard = new HashMap<>();
+            int to = Math.min(from + FETCH_BATCH_SIZE, ids.length);
+            for (int i = from; i < to; i++) {
+                idsByShard.computeIfAbsent(shardRouter.shardFor(ids[i]), shard -> new ArrayList<>()).add(ids[i]);
+            }
+            Map<Long, User> usersById = new HashMap<>();
+            idsByShard.forEach((shard, shardIds) -> shardRouter
+                    .onShard(shard, () -> userRepository.findAllById(shardIds))
+                    .forEach(user -> usersById.put(user.getId(), user)));
+            for (int i = from; i < to; i++) {
+                User user = usersById.get(ids[i]);
+                if (user != null) {
+                    users.add(user);
+                }
             }
+        }
+        return users;
+    }
+
+    private List<User> findByBirthDateRangeOnShard(LocalDate start, LocalDate end) {
+        if (start != null && end != null) {
             return userRepository.findByBirthDateBetween(start, end);
         } else if (start != null) {
             return userRepository.findByBirthDateAfter(start);
@@ -101,6 +298,181 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    @Override
+    public List<User> findByFilter(UserFilter filter) {
+        int limit = filter.getLimit() != null ? filter.getLimit() : defaultSearchLimit;
+        if (limit > maxSearchLimit) {
+            throw new IllegalArgumentException("The limit must not be greater than " + maxSearchLimit + ".");
+        }
+        String sortKey = filter.getSort() != null ? filter.getSort() : "id";
+        boolean descending = sortKey.startsWith("-");
+        String property = descending ? sortKey.substring(1) : sortKey;
+        if (!SORT_KEYS.contains(property)) {
+            throw new IllegalArgumentException("Sorting is only supported by " + new TreeSet<>(SORT_KEYS) + ".");
+        }
+        Comparator<User> comparator = sortComparator(property);
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, property).and(Sort.by(direction, "id"));
+        comparator = comparator.thenComparing(User::getId);
+        if (descending) {
+            comparator = comparator.reversed();
+        }
+
+        Specification<User> specification = toSpecification(filter);
+        List<User> users = shardRouter.fanOut(() -> userRepository.findBy(specification,
+                query -> query.sortBy(sort).limit(limit).all()), User::getId);
+        return users.stream().sorted(comparator).limit(limit).toList();
+    }
+
+    @Override
+    public List<User> findUpcomingBirthdays(int days) {
+        return findUpcomingBirthdays(LocalDate.now(), days);
+    }
+
+    List<User> findUpcomingBirthdays(LocalDate today, int days) {
+        if (days < 0 || days > 365) {
+            throw new IllegalArgumentException("The number of days must be between 0 and 365.");
+        }
+        LocalDate end = today.plusDays(days);
+        List<int[]> monthDayRanges = new ArrayList<>();
+        if (today.getYear() == end.getYear()) {
+            monthDayRanges.add(monthDayRange(today, end));
+        } else if (User.monthDayOf(end) >= User.monthDayOf(today)) {
+            monthDayRanges.add(new int[]{101, 1231});
+        } else {
+            int[] thisYear = monthDayRange(today, LocalDate.of(today.getYear(), 12, 31));
+            int[] nextYear = monthDayRange(LocalDate.of(end.getYear(), 1, 1), end);
+            // a 1 March start widened to 229 overlaps a range ending on 29 February of the next, leap, year
+            thisYear[0] = Math.max(thisYear[0], nextYear[1] + 1);
+            monthDayRanges.add(thisYear);
+            monthDayRanges.add(nextYear);
+        }
+        List<User> users = shardRouter.fanOut(() -> monthDayRanges.stream()
+                .flatMap(range -> userRepository.findByBirthMonthDayBetween(range[0], range[1]).stream())
+                .toList(), User::getId);
+        return users.stream()
+                .sorted(Comparator.comparing((User user) -> nextBirthday(user.getBirthDate(), today))
+                        .thenComparing(User::getId))
+                .toList();
+    }
+
+    @Override
+    public List<User> findTurningAge(Integer age, LocalDate start, LocalDate end) {
+        int targetAge = age != null ? age : minimumAge;
+        LocalDate from = start != null ? start : LocalDate.now();
+        LocalDate to = end != null ? end : from.plusDays(6);
+        if (targetAge < 0) {
+            throw new IllegalArgumentException("Age must not be negative.");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("The 'from' date must be before the 'to' date.");
+        }
+        // the earliest birth date that reaches the age on 'from' according to Period, which moves
+        // a 29 February birthday to 1 March in non-leap years
+        LocalDate bornFrom = from.minusDays(1).minusYears(targetAge).plusDays(1);
+        LocalDate bornTo = to.minusYears(targetAge);
+        List<User> users = shardRouter.fanOut(() -> userRepository.findByBirthDateBetween(bornFrom, bornTo),
+                User::getId);
+        return users.stream().sorted(BY_BIRTH_DATE).toList();
+    }
+
+    @Override
+    public Instant getLastModified() {
+        return modificationTracker.getLastModified();
+    }
+
+    /**
+     * Orders merged shard results the way each shard sorted them. Text keys use the collation named by
+     * {@code user.search.collation}, which must match the database collation; when it is empty they
+     * are compared by code unit, as H2 and the PostgreSQL {@code C} collation do. Ascending nulls come
+     * first, as in the database.
+     */
+    private Comparator<User> sortComparator(String property) {
+        Comparator<String> textOrder = StringUtils.hasText(collation)
+                ? Collator.getInstance(Locale.forLanguageTag(collation))::compare
+                : Comparator.naturalOrder();
+        return switch (property) {
+            case "birthDate" -> Comparator.comparing(User::getBirthDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "lastName" -> Comparator.comparing(User::getLastName, Comparator.nullsFirst(textOrder));
+            case "email" -> Comparator.comparing(User::getEmail, Comparator.nullsFirst(textOrder));
+            default -> Comparator.comparing(User::getId);
+        };
+    }
+
+    /**
+     * Rejects filters that can only be answered by scanning the whole table: the email domain,
+     * address and phone filters have no usable index and must be narrowed by a last name prefix of
+     * at least {@code user.search.min-name-prefix-length} characters, or by an age range with both
+     * bounds spanning at most {@code user.search.max-age-span} years.
+     */
+    private Specification<User> toSpecification(UserFilter filter) {
+        Specification<User> specification = Specification.where(null);
+        boolean indexed = false;
+        if (StringUtils.hasText(filter.getNamePrefix())) {
+            specification = specification.and(lastNameStartsWith(filter.getNamePrefix()));
+            indexed = filter.getNamePrefix().length() >= minNamePrefixLength;
+        }
+        if (filter.getMinAge() != null && filter.getMaxAge() != null) {
+            if (filter.getMinAge() > filter.getMaxAge()) {
+                throw new IllegalArgumentException("The minimum age must not be greater than the maximum age.");
+            }
+            indexed |= filter.getMaxAge() - filter.getMinAge() < maxAgeSpan;
+        }
+        LocalDate today = LocalDate.now();
+        if (filter.getMinAge() != null) {
+            specification = specification.and(bornOnOrBefore(today.minusYears(filter.getMinAge())));
+        }
+        if (filter.getMaxAge() != null) {
+            specification = specification.and(bornAfter(today.minusYears(filter.getMaxAge() + 1L)));
+        }
+        boolean unindexed = false;
+        if (StringUtils.hasText(filter.getEmailDomain())) {
+            specification = specification.and(emailDomainIs(filter.getEmailDomain()));
+            unindexed = true;
+        }
+        if (StringUtils.hasText(filter.getAddressContains())) {
+            specification = specification.and(addressContains(filter.getAddressContains()));
+            unindexed = true;
+        }
+        if (filter.getPhonePresent() != null) {
+            specification = specification.and(hasPhoneNumber(filter.getPhonePresent()));
+            unindexed = true;
+        }
+        if (unindexed && !indexed) {
+            throw new IllegalArgumentException("Filtering by email domain, address or phone requires a name prefix of at least "
+                    + minNamePrefixLength + " characters or an age range of at most " + maxAgeSpan + " years.");
+        }
+        return specification;
+    }
+
+    /**
+     * A 29 February birthday is observed on 1 March in non-leap years, consistent with the
+     * {@link Period} based age check, so a range starting on 1 March of such a year also covers 229.
+     */
+    private static int[] monthDayRange(LocalDate start, LocalDate end) {
+        int from = User.monthDayOf(start);
+        if (from == 301 && !start.isLeapYear()) {
+            from = 229;
+        }
+        return new int[]{from, User.monthDayOf(end)};
+    }
+
+    private static LocalDate nextBirthday(LocalDate birthDate, LocalDate today) {
+        LocalDate birthday = birthdayIn(today.getYear(), birthDate);
+        return birthday.isBefore(today) ? birthdayIn(today.getYear() + 1, birthDate) : birthday;
+    }
+
+    private static LocalDate birthdayIn(int year, LocalDate birthDate) {
+        if (birthDate.getMonth() == Month.FEBRUARY && birthDate.getDayOfMonth() == 29 && !Year.isLeap(year)) {
+            return LocalDate.of(year, Month.MARCH, 1);
+        }
+        return birthDate.withYear(year);
+    }
+
+    private void markModified() {
+        modificationTracker.markModified();
+    }
+
     private boolean isAgeValid(LocalDate birthDate) {
         return Period.between(birthDate, LocalDate.now()).getYears() >= minimumAge;
     }
@@ -115,4 +487,15 @@ public class UserServiceImpl implements UserService {
             return true;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * A saved user and the birth date it had before the write, so the read model is only touched when
+     * the birth date changed.
+     */
+    private record SavedUser(User user, LocalDate previousBirthDate) {
+
+        boolean birthDateChanged() {
+            return !Objects.equals(previousBirthDate, user.getBirthDate());
+        }
+    }
+}
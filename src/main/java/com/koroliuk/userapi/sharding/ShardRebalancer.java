@@ -0,0 +1,101 @@
+package com.koroliuk.userapi.sharding;
+
+import com.koroliuk.userapi.model.User;
+import com.koroliuk.userapi.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves users that live on a shard other than the one {@link ShardRouter} assigns to them,
+ * e.g. after a URL has been appended to {@code user.sharding.urls}. Runs as an offline command
+ * ({@value #COMMAND}) while no instance serves traffic, because requests for a user that has not
+ * been moved yet are routed to its new shard. Each user is copied before it is deleted from the
+ * old shard, so an interrupted run can be repeated.
+ */
+@Component
+public class ShardRebalancer {
+
+    public static final String COMMAND = "--rebalance-shards";
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+    private static final int PAGE_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final ShardRouter shardRouter;
+
+    @Autowired
+    public ShardRebalancer(UserRepository userRepository, ShardRouter shardRouter) {
+        this.userRepository = userRepository;
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * Starts the application without the HTTP and gRPC servers, rebalances the shards and shuts down.
+     */
+    public static void runOffline(Class<?> source, String[] args) {
+        SpringApplication application = new SpringApplication(source);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.addInitializers(context -> context.getEnvironment().getPropertySources()
+                .addFirst(new MapPropertySource("rebalanceShards", Map.of(
+                        "grpc.server.enabled", "false",
+                        "user.cache.enabled", "false",
+                        "user.read-model.enabled", "false"))));
+        try (ConfigurableApplicationContext context = application.run(args)) {
+            context.getBean(ShardRebalancer.class).rebalance();
+        }
+    }
+
+    public int rebalance() {
+        int moved = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            moved += rebalanceShard(shard);
+        }
+        log.info("Rebalanced {} users across {} shards", moved, shardRouter.getShardCount());
+        return moved;
+    }
+
+    // pages by id rather than by offset, so deleting moved users does not shift the following pages
+    private int rebalanceShard(int shard) {
+        int moved = 0;
+        long lastId = Long.MIN_VALUE;
+        List<User> page;
+        do {
+            long afterId = lastId;
+            page = shardRouter.onShard(shard,
+                    () -> userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(PAGE_SIZE)));
+            for (User user : page) {
+                if (shardRouter.shardFor(user.getId()) != shard) {
+                    moveUser(user, shard);
+                    moved++;
+                }
+            }
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+        return moved;
+    }
+
+    private void moveUser(User user, int sourceShard) {
+        shardRouter.onShardFor(user.getId(), () -> {
+            if (!userRepository.existsById(user.getId())) {
+                userRepository.save(user.toBuilder().version(null).build());
+            }
+            return null;
+        });
+        shardRouter.onShard(sourceShard, () -> {
+            userRepository.deleteById(user.getId());
+            return null;
+        });
+    }
+}
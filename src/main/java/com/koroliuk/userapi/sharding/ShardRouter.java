@@ -0,0 +1,143 @@
+package com.koroliuk.userapi.sharding;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Maps user ids to shards and runs repository calls against a given shard. With no
+ * {@code user.sharding.urls} configured there is a single shard and calls run unchanged. Fan-out
+ * tasks are wrapped by the application's {@link TaskDecorator}, if any, so thread-bound state such
+ * as the request profile reaches the shard queries.
+ */
+@Component
+public class ShardRouter {
+
+    private final int shardCount;
+    private final ExecutorService fanOutExecutor;
+    private final TaskDecorator taskDecorator;
+
+    public ShardRouter(String[] shardUrls) {
+        this(shardUrls, null);
+    }
+
+    @Autowired
+    public ShardRouter(@Value("${user.sharding.urls:}") String[] shardUrls,
+                       ObjectProvider<TaskDecorator> taskDecorator) {
+        this.shardCount = Math.max(1, shardUrls.length);
+        this.fanOutExecutor = shardCount > 1 ? Executors.newFixedThreadPool(shardCount) : null;
+        this.taskDecorator = taskDecorator != null ? taskDecorator.getIfUnique() : null;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int shardFor(Long id) {
+        return Math.floorMod(mix(id), shardCount);
+    }
+
+    public <T> T onShardFor(Long id, Supplier<T> call) {
+        return onShard(shardFor(id), call);
+    }
+
+    public <T> T onShard(int shard, Supplier<T> call) {
+        Integer previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            return call.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    /**
+     * Runs the query on every shard in parallel and concatenates the results in shard order.
+     */
+    public <T> List<T> fanOut(Supplier<List<T>> query) {
+        List<T> results = new ArrayList<>();
+        queryAllShards(query).forEach(results::addAll);
+        return results;
+    }
+
+    /**
+     * Like {@link #fanOut(Supplier)}, but returns each id once. A user can briefly exist on two shards
+     * while {@link ShardRebalancer} moves it, or permanently if a move was interrupted; the copy on the
+     * shard that owns the id wins.
+     */
+    public <T> List<T> fanOut(Supplier<List<T>> query, Function<T, Long> idOf) {
+        List<List<T>> resultsByShard = queryAllShards(query);
+        if (shardCount == 1) {
+            return resultsByShard.get(0);
+        }
+        Map<Long, T> resultsById = new LinkedHashMap<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (T result : resultsByShard.get(shard)) {
+                Long id = idOf.apply(result);
+                if (shardFor(id) == shard) {
+                    resultsById.put(id, result);
+                } else {
+                    resultsById.putIfAbsent(id, result);
+                }
+            }
+        }
+        return new ArrayList<>(resultsById.values());
+    }
+
+    private <T> List<List<T>> queryAllShards(Supplier<List<T>> query) {
+        if (shardCount == 1) {
+            return List.of(query.get());
+        }
+        Executor executor = taskDecorator != null
+                ? task -> fanOutExecutor.execute(taskDecorator.decorate(task))
+                : fanOutExecutor;
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> onShard(target, query), executor));
+        }
+        List<List<T>> results = new ArrayList<>(shardCount);
+        try {
+            for (CompletableFuture<List<T>> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdown();
+        }
+    }
+
+    // SplitMix64 finalizer, so that sequential ids spread evenly over the shards
+    private static int mix(long id) {
+        long z = id;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        z = z ^ (z >>> 31);
+        return (int) (z ^ (z >>> 32));
+    }
+}
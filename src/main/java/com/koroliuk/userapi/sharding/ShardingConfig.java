@@ -0,0 +1,47 @@
+package com.koroliuk.userapi.sharding;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Replaces the single datasource with one pool per URL in {@code user.sharding.urls}, routed by
+ * {@link ShardContext}. Every shard gets the users table from {@code db/sharding/schema.sql}.
+ */
+@Configuration
+@ConditionalOnProperty("user.sharding.urls")
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties,
+                                 @Value("${user.sharding.urls}") String[] shardUrls) {
+        ResourceDatabasePopulator schema = new ResourceDatabasePopulator(new ClassPathResource("db/sharding/schema.sql"));
+        Map<Object, Object> shards = new HashMap<>();
+        for (int shard = 0; shard < shardUrls.length; shard++) {
+            DataSource shardDataSource = DataSourceBuilder.create()
+                    .url(shardUrls[shard].trim())
+                    .username(properties.getUsername())
+                    .password(properties.getPassword())
+                    .build();
+            DatabasePopulatorUtils.execute(schema, shardDataSource);
+            shards.put(shard, shardDataSource);
+        }
+        ShardRoutingDataSource dataSource = new ShardRoutingDataSource();
+        dataSource.setTargetDataSources(shards);
+        dataSource.setDefaultTargetDataSource(shards.get(0));
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+}
@@ -0,0 +1,67 @@
+package com.koroliuk.userapi.sharding;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates cluster-wide unique, roughly time-ordered user ids without a database round trip:
+ * 41 bits of milliseconds since 2024-01-01, 6 bits of {@code user.id.node-id} and a 6 bit sequence.
+ * Ids stay below 2^53, so JavaScript clients can read them from JSON numbers without rounding.
+ */
+@Component
+public class SnowflakeIdGenerator {
+
+    private static final long EPOCH_MILLIS = 1704067200000L;
+    private static final int NODE_BITS = 6;
+    private static final int SEQUENCE_BITS = 6;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private long lastMillis = -1;
+    private long sequence;
+
+    /**
+     * Instances that share a database must not share a node id, or they generate the same ids. So an
+     * explicit {@code user.id.node-id} is required once shards ({@code user.sharding.urls}) or cluster
+     * peers ({@code user.cache.members}) are configured; a single instance uses
+     * {@code user.id.default-node-id}.
+     */
+    @Autowired
+    public SnowflakeIdGenerator(@Value("${user.id.node-id:#{null}}") Long nodeId,
+                                @Value("${user.id.default-node-id}") long defaultNodeId,
+                                @Value("${user.sharding.urls:}") String[] shardUrls,
+                                @Value("${user.cache.members:}") String[] members) {
+        this(resolveNodeId(nodeId, defaultNodeId, shardUrls.length > 0 || members.length > 0));
+    }
+
+    public SnowflakeIdGenerator(Long nodeId) {
+        if (nodeId == null) {
+            throw new IllegalStateException("user.id.node-id must be set to a value unique to this instance "
+                    + "when user.sharding.urls or user.cache.members is configured");
+        }
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+    }
+
+    public synchronized long nextId() {
+        long now = Math.max(System.currentTimeMillis(), lastMillis);
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                now = lastMillis + 1;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = now;
+        return ((now - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    private static Long resolveNodeId(Long nodeId, long defaultNodeId, boolean sharedDeployment) {
+        return nodeId != null || sharedDeployment ? nodeId : Long.valueOf(defaultNodeId);
+    }
+}
@@ -0,0 +1,182 @@
+package com.koroliuk.userapi.validation;
+
+import com.koroliuk.userapi.dto.UserDTO;
+import jakarta.validation.groups.Default;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks the constraints declared on {@link UserDTO} without reflection or regular expressions.
+ * Validation hints are the groups from {@code @Validated}; no hints means {@link Default}.
+ * Codes and messages match the ones Hibernate Validator reports for the annotations.
+ */
+@Component
+public class UserDTOValidator implements SmartValidator {
+
+    private static final int MAX_EMAIL_LOCAL_PART_LENGTH = 64;
+    private static final int MAX_EMAIL_DOMAIN_LENGTH = 255;
+    private static final int MAX_DOMAIN_LABEL_LENGTH = 63;
+    private static final String EMAIL_LOCAL_PART_SYMBOLS = "_!#$%&’*+/=?`{|}~^-";
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return UserDTO.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        validate(target, errors, new Object[0]);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        for (Violation violation : findViolations((UserDTO) target, validationHints)) {
+            errors.rejectValue(violation.field(), violation.code(), violation.message());
+        }
+    }
+
+    public List<Violation> findViolations(UserDTO userDto, Object... groups) {
+        boolean defaultGroup = groups.length == 0 || Arrays.asList(groups).contains(Default.class);
+        boolean patchGroup = Arrays.asList(groups).contains(OnPatch.class);
+        List<Violation> violations = new ArrayList<>();
+
+        if (defaultGroup && isBlank(userDto.getEmail())) {
+            violations.add(new Violation("email", "NotBlank", "Email should not be blank"));
+        }
+        if ((defaultGroup || patchGroup) && userDto.getEmail() != null && !isEmail(userDto.getEmail())) {
+            violations.add(new Violation("email", "Email", "Invalid email format"));
+        }
+        if (defaultGroup && isBlank(userDto.getFirstName())) {
+            violations.add(new Violation("firstName", "NotBlank", "First name should not be blank"));
+        }
+        if (defaultGroup && isBlank(userDto.getLastName())) {
+            violations.add(new Violation("lastName", "NotBlank", "Last name should not be blank"));
+        }
+        if (defaultGroup && userDto.getBirthDate() == null) {
+            violations.add(new Violation("birthDate", "NotNull", "Birth date should not be null"));
+        }
+        if ((defaultGroup || patchGroup) && userDto.getBirthDate() != null
+                && !userDto.getBirthDate().isBefore(LocalDate.now())) {
+            violations.add(new Violation("birthDate", "Past", "The birth date must be in the past"));
+        }
+        if ((defaultGroup || patchGroup) && userDto.getPhoneNumber() != null && !isPhoneNumber(userDto.getPhoneNumber())) {
+            violations.add(new Violation("phoneNumber", "Pattern", "Invalid phone number format"));
+        }
+        return violations;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /**
+     * Same result as Hibernate's {@code @Email} check combined with the DTO's
+     * {@code ^[a-zA-Z0-9_!#$%&’*+/=?`{|}~^.-]+@[a-zA-Z0-9.-]+$} pattern.
+     */
+    static boolean isEmail(String value) {
+        int at = value.indexOf('@');
+        if (at <= 0 || at != value.lastIndexOf('@')) {
+            return false;
+        }
+        return isEmailLocalPart(value, 0, at) && isEmailDomain(value, at + 1, value.length());
+    }
+
+    private static boolean isEmailLocalPart(String value, int start, int end) {
+        if (end - start > MAX_EMAIL_LOCAL_PART_LENGTH || value.charAt(start) == '.' || value.charAt(end - 1) == '.') {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == '.') {
+                if (value.charAt(i - 1) == '.') {
+                    return false;
+                }
+            } else if (!isAsciiLetterOrDigit(c) && EMAIL_LOCAL_PART_SYMBOLS.indexOf(c) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isEmailDomain(String value, int start, int end) {
+        if (end == start || end - start > MAX_EMAIL_DOMAIN_LENGTH) {
+            return false;
+        }
+        int labelStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || value.charAt(i) == '.') {
+                if (!isDomainLabel(value, labelStart, i)) {
+                    return false;
+                }
+                labelStart = i + 1;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDomainLabel(String value, int start, int end) {
+        if (end == start || end - start > MAX_DOMAIN_LABEL_LENGTH
+                || value.charAt(start) == '-' || value.charAt(end - 1) == '-') {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c != '-' && !isAsciiLetterOrDigit(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hand-rolled equivalent of {@code ^[+]*[(]?[0-9]{1,4}[)]?[-\s./0-9]*$}.
+     */
+    static boolean isPhoneNumber(String value) {
+        int i = 0;
+        int length = value.length();
+        while (i < length && value.charAt(i) == '+') {
+            i++;
+        }
+        if (i < length && value.charAt(i) == '(') {
+            i++;
+        }
+        int digitsStart = i;
+        while (i < length && i - digitsStart < 4 && isAsciiDigit(value.charAt(i))) {
+            i++;
+        }
+        if (i == digitsStart) {
+            return false;
+        }
+        if (i < length && value.charAt(i) == ')') {
+            i++;
+        }
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (!isAsciiDigit(c) && c != '-' && c != '.' && c != '/' && !isRegexWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiDigit(c) || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    public record Violation(String field, String code, String message) {
+    }
+}
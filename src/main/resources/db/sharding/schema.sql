@@ -0,0 +1,18 @@
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT NOT NULL PRIMARY KEY,
+    version BIGINT,
+    email VARCHAR(255),
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    birth_date DATE,
+    address VARCHAR(255),
+    phone_number VARCHAR(255),
+    birth_month_day INT
+);
+ALTER TABLE users ADD COLUMN IF NOT EXISTS birth_month_day INT;
+UPDATE users SET birth_month_day = MONTH(birth_date) * 100 + DAY_OF_MONTH(birth_date)
+    WHERE birth_month_day IS NULL AND birth_date IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_users_birth_date ON users (birth_date);
+CREATE INDEX IF NOT EXISTS idx_users_last_name ON users (last_name);
+CREATE INDEX IF NOT EXISTS idx_users_email ON users (email);
+CREATE INDEX IF NOT EXISTS idx_users_birth_month_day ON users (birth_month_day);
@@ -3,7 +3,7 @@ package com.koroliuk.userapi;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "grpc.server.port=0")
 class UserApiApplicationTests {
 
 	@Test
@@ -0,0 +1,93 @@
+package com.koroliuk.userapi.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.koroliuk.userapi.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of a list of users in each wire format served by {@link WireFormatConfig}.
+ * The mappers are configured like the application's, and the users are generated from a fixed seed,
+ * so every run works on the same payloads; the encoded size of each is printed on setup. Run with
+ * {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath org.openjdk.jmh.Main WireFormatBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class WireFormatBenchmark {
+
+    private static final long SEED = 20240101L;
+    private static final String[] FIRST_NAMES = {"John", "Jane", "Olena", "Taras", "Maria", "Andrii", "Iryna", "Petro"};
+    private static final String[] LAST_NAMES = {"Doe", "Smith", "Koroliuk", "Shevchenko", "Bondarenko", "Kovalenko"};
+    private static final String[] STREETS = {"Main St", "Khreshchatyk", "Shevchenka Ave", "Lesi Ukrainky Blvd"};
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"1000"})
+    private int users;
+
+    private ObjectMapper mapper;
+    private JavaType listType;
+    private List<User> payload;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper = switch (format) {
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            default -> builder.build();
+        };
+        listType = mapper.getTypeFactory().constructCollectionType(List.class, User.class);
+        payload = createUsers(users);
+        encoded = mapper.writeValueAsBytes(payload);
+        System.out.println(format + " payload of " + users + " users: " + encoded.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public List<User> decode() throws IOException {
+        return mapper.readValue(encoded, listType);
+    }
+
+    static List<User> createUsers(int count) {
+        Random random = new Random(SEED);
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            users.add(User.builder()
+                    .id(1_000_000L + random.nextInt(1_000_000_000))
+                    .email(firstName.toLowerCase() + "." + lastName.toLowerCase() + i + "@example.com")
+                    .firstName(firstName)
+                    .lastName(lastName)
+                    .birthDate(LocalDate.of(1950, 1, 1).plusDays(random.nextInt(20_000)))
+                    .address((1 + random.nextInt(200)) + " " + STREETS[random.nextInt(STREETS.length)])
+                    .phoneNumber(random.nextInt(4) == 0 ? null : "+38067" + (1_000_000 + random.nextInt(9_000_000)))
+                    .build());
+        }
+        return users;
+    }
+}
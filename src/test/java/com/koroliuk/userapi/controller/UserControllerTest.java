@@ -1,10 +1,16 @@
 package com.koroliuk.userapi.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.koroliuk.userapi.config.WireFormatConfig;
+import com.koroliuk.userapi.dto.PatchStatus;
 import com.koroliuk.userapi.dto.UserDTO;
 import com.koroliuk.userapi.model.User;
+import com.koroliuk.userapi.service.PatchWriteBehindService;
 import com.koroliuk.userapi.service.UserService;
 import com.koroliuk.userapi.service.UserServiceImpl;
+import com.koroliuk.userapi.validation.UserDTOValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
@@ -14,24 +20,35 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(UserController.class)
+@Import(WireFormatConfig.class)
 public class UserControllerTest {
 
     @Autowired
@@ -43,8 +60,15 @@ public class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private PatchWriteBehindService patchWriteBehindService;
+
+    @SpyBean
+    private UserDTOValidator userDTOValidator;
+
     private User user;
     private UserDTO userDto;
+    private final Instant lastModified = Instant.parse("2024-05-01T10:15:30.123Z");
 
     @BeforeEach
     public void setup() {
@@ -66,6 +90,21 @@ public class UserControllerTest {
                 .address("123 Main St")
                 .phoneNumber("+380670891268")
                 .build();
+
+        given(userService.getLastModified()).willReturn(lastModified);
+        given(patchWriteBehindService.writeThrough(any(), any()))
+                .willAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    }
+
+    @Test
+    public void getUser_WhenUserExists_ShouldReturnUser() throws Exception {
+        given(userService.findById(1L)).willReturn(createUser());
+
+        mvc.perform(get("/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.email", is("john.doe@example.com")))
+                .andExpect(jsonPath("$.version").doesNotExist());
     }
 
     @Test
@@ -85,6 +124,23 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.phoneNumber", is(newUser.getPhoneNumber())));
     }
 
+    @Test
+    public void createUser_WhenPostInvalidUser_ShouldReturnValidatorMessages() throws Exception {
+        UserDTO invalidUserDto = createUserDTO();
+        invalidUserDto.setFirstName(" ");
+        invalidUserDto.setPhoneNumber("phone");
+
+        mvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(invalidUserDto)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.reason", is("Input data is not valid")))
+                .andExpect(jsonPath("$.message", containsInAnyOrder(
+                        "First name should not be blank", "Invalid phone number format")));
+
+        verify(userDTOValidator).validate(any(), any(), any(Object[].class));
+    }
+
     @Test
     public void updateUser_WhenPutUser_ShouldReturnUpdatedUser() throws Exception {
         UserDTO userDto = createUserDTO();
@@ -134,6 +190,43 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.phoneNumber", is(originalUser.getPhoneNumber())));
     }
 
+    @Test
+    public void patchUpdateUser_WhenWriteBehindEnabled_ShouldReturnAccepted() throws Exception {
+        UUID ticketId = UUID.randomUUID();
+        PatchStatus status = PatchStatus.builder()
+                .ticketId(ticketId)
+                .userId(1L)
+                .state(PatchStatus.State.PENDING)
+                .build();
+        given(patchWriteBehindService.isEnabled()).willReturn(true);
+        given(patchWriteBehindService.enqueue(eq(1L), any(UserDTO.class))).willReturn(status);
+
+        mvc.perform(patch("/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(UserDTO.builder().address("789 Partial Ave").build())))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", endsWith("/users/patches/" + ticketId)))
+                .andExpect(jsonPath("$.ticketId", is(ticketId.toString())))
+                .andExpect(jsonPath("$.state", is("PENDING")));
+
+        verify(userService, never()).patchUpdate(any(), any());
+    }
+
+    @Test
+    public void getPatchStatus_WhenTicketExists_ShouldReturnStatus() throws Exception {
+        UUID ticketId = UUID.randomUUID();
+        given(patchWriteBehindService.getStatus(ticketId)).willReturn(PatchStatus.builder()
+                .ticketId(ticketId)
+                .userId(1L)
+                .state(PatchStatus.State.APPLIED)
+                .build());
+
+        mvc.perform(get("/users/patches/" + ticketId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId", is(1)))
+                .andExpect(jsonPath("$.state", is("APPLIED")));
+    }
+
     @Test
     public void deleteUser_WhenDeleteUser_ShouldReturnNoContent() throws Exception {
         doNothing().when(userService).delete(1L);
@@ -170,6 +263,175 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$[0].phoneNumber", is(user.getPhoneNumber())));
     }
 
+    @Test
+    public void findByBirthDateRange_WhenGetUsers_ShouldReturnCacheHeaders() throws Exception {
+        given(userService.findByBirthDateRange(any(), any())).willReturn(Collections.singletonList(createUser()));
+
+        mvc.perform(get("/users/search")
+                        .param("start", "1990-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"" + lastModified.toEpochMilli() + "-json\""))
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(header().string("Vary", "Accept"))
+                .andExpect(header().doesNotExist("Last-Modified"));
+    }
+
+    @Test
+    public void findByBirthDateRange_WhenCborAccepted_ShouldReturnCborWithItsOwnETag() throws Exception {
+        given(userService.findByBirthDateRange(any(), any())).willReturn(Collections.singletonList(createUser()));
+
+        mvc.perform(get("/users/search")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header("If-None-Match", "W/\"" + lastModified.toEpochMilli() + "-json\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("ETag", "W/\"" + lastModified.toEpochMilli() + "-cbor\""))
+                .andExpect(header().string("Vary", "Accept"));
+    }
+
+    @Test
+    public void findByBirthDateRange_WhenWrittenAgainWithinSameSecond_ShouldReturnUsers() throws Exception {
+        given(userService.findByBirthDateRange(any(), any())).willReturn(Collections.singletonList(createUser()));
+        given(userService.getLastModified()).willReturn(lastModified.plusMillis(400));
+
+        mvc.perform(get("/users/search")
+                        .header("If-Modified-Since", lastModified.getEpochSecond() * 1000))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"" + lastModified.plusMillis(400).toEpochMilli() + "-json\""))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    public void findByBirthDateRange_WhenETagMatches_ShouldReturnNotModified() throws Exception {
+        mvc.perform(get("/users/search")
+                        .param("start", "1990-01-01")
+                        .header("If-None-Match", "W/\"" + lastModified.toEpochMilli() + "-json\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues("ETag", "W/\"" + lastModified.toEpochMilli() + "-json\""))
+                .andExpect(header().stringValues("Vary", "Accept"))
+                .andExpect(content().string(""));
+
+        verify(userService, never()).findByBirthDateRange(any(), any());
+    }
+
+    @Test
+    public void findByBirthDateRange_WhenETagIsStale_ShouldReturnUsers() throws Exception {
+        given(userService.findByBirthDateRange(any(), any())).willReturn(Collections.singletonList(createUser()));
+
+        mvc.perform(get("/users/search")
+                        .header("If-None-Match", "W/\"1\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    public void countByBirthDateRange_WhenGetCount_ShouldReturnCount() throws Exception {
+        given(userService.countByBirthDateRange(LocalDate.of(1990, 1, 1), null)).willReturn(3L);
+
+        mvc.perform(get("/users/search/count")
+                        .param("start", "1990-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("3"));
+    }
+
+    @Test
+    public void findByFilter_WhenGetUsers_ShouldBindFilter() throws Exception {
+        given(userService.findByFilter(any())).willReturn(Collections.singletonList(createUser()));
+
+        mvc.perform(get("/users/filter")
+                        .param("namePrefix", "Do")
+                        .param("minAge", "18")
+                        .param("phonePresent", "true")
+                        .param("sort", "-birthDate"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        verify(userService).findByFilter(argThat(filter -> "Do".equals(filter.getNamePrefix())
+                && filter.getMinAge() == 18
+                && filter.getPhonePresent()
+                && "-birthDate".equals(filter.getSort())));
+    }
+
+    @Test
+    public void findByFilter_WhenLimitIsNotPositive_ShouldReturnBadRequest() throws Exception {
+        mvc.perform(get("/users/filter")
+                        .param("namePrefix", "Do")
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).findByFilter(any());
+    }
+
+    @Test
+    public void findUpcomingBirthdays_WhenGetUsers_ShouldReturnUsers() throws Exception {
+        given(userService.findUpcomingBirthdays(14)).willReturn(Collections.singletonList(createUser()));
+
+        mvc.perform(get("/users/birthdays/upcoming")
+                        .param("days", "14"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    public void findTurningAge_WhenGetUsers_ShouldReturnUsers() throws Exception {
+        given(userService.findTurningAge(18, LocalDate.of(2026, 3, 1), null))
+                .willReturn(Collections.singletonList(createUser()));
+
+        mvc.perform(get("/users/birthdays/turning")
+                        .param("age", "18")
+                        .param("start", "2026-03-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    public void createUser_WhenPostCbor_ShouldReturnCbor() throws Exception {
+        ObjectMapper cborMapper = objectMapper.copyWith(new CBORFactory());
+        User newUser = createUser();
+        given(userService.create(any(UserDTO.class))).willReturn(newUser);
+
+        MvcResult result = mvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(createUserDTO())))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        User returnedUser = cborMapper.readValue(result.getResponse().getContentAsByteArray(), User.class);
+        assertEquals(newUser.getEmail(), returnedUser.getEmail());
+        assertEquals(newUser.getBirthDate(), returnedUser.getBirthDate());
+    }
+
+    @Test
+    public void createUser_WhenPostInvalidCbor_ShouldReturnBadRequest() throws Exception {
+        ObjectMapper cborMapper = objectMapper.copyWith(new CBORFactory());
+        UserDTO invalidUserDto = createUserDTO();
+        invalidUserDto.setEmail("not-an-email");
+
+        mvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(invalidUserDto)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void findByBirthDateRange_WhenAcceptSmile_ShouldReturnSmile() throws Exception {
+        ObjectMapper smileMapper = objectMapper.copyWith(new SmileFactory());
+        MediaType smile = MediaType.valueOf("application/x-jackson-smile");
+        given(userService.findByBirthDateRange(any(), any())).willReturn(Collections.singletonList(createUser()));
+
+        MvcResult result = mvc.perform(get("/users/search")
+                        .accept(smile))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(smile))
+                .andReturn();
+
+        User[] users = smileMapper.readValue(result.getResponse().getContentAsByteArray(), User[].class);
+        assertEquals(1, users.length);
+        assertEquals("john.doe@example.com", users[0].getEmail());
+    }
+
     private User createUser() {
         return User.builder()
                 .id(1L)
@@ -7,6 +7,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.MethodParameter;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -58,6 +59,15 @@ class RestResponseExceptionHandlerTest {
         assertEquals("User not found", response.getBody().get("message"));
     }
 
+    @Test
+    void testHandleOptimisticLockingFailure() {
+        OptimisticLockingFailureException ex = new OptimisticLockingFailureException("Row was updated by another transaction");
+        ResponseEntity<Map<String, Object>> response = exceptionHandler.handleOptimisticLockingFailure(ex);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("Row was updated by another transaction", Objects.requireNonNull(response.getBody()).get("message"));
+    }
+
     @Test
     void testHandleValidationErrors() {
         List<FieldError> fieldErrors = new ArrayList<>();
@@ -0,0 +1,252 @@
+package com.koroliuk.userapi.grpc;
+
+import com.koroliuk.userapi.dto.UserDTO;
+import com.koroliuk.userapi.model.User;
+import com.koroliuk.userapi.service.PatchWriteBehindService;
+import com.koroliuk.userapi.service.UserService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import jakarta.persistence.EntityNotFoundException;
+import com.koroliuk.userapi.validation.UserDTOValidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserGrpcServiceTest {
+
+    @Mock
+    private UserService userService;
+
+    private PatchWriteBehindService patchWriteBehindService;
+    private Server server;
+    private ManagedChannel channel;
+    private UserServiceGrpc.UserServiceBlockingStub stub;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        String serverName = InProcessServerBuilder.generateName();
+        // a window long enough that queued patches are only flushed by a later write
+        patchWriteBehindService = new PatchWriteBehindService(userService, true, 60_000, 1);
+        UserGrpcService userGrpcService = new UserGrpcService(userService, patchWriteBehindService,
+                new UserDTOValidator());
+        server = InProcessServerBuilder.forName(serverName)
+                .directExecutor()
+                .addService(userGrpcService)
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+        stub = UserServiceGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+        patchWriteBehindService.shutdown();
+    }
+
+    @Test
+    void createUser_ValidUser_ShouldReturnUser() {
+        when(userService.create(any(UserDTO.class))).thenReturn(createUser(1L));
+
+        UserMessage response = stub.createUser(CreateUserRequest.newBuilder()
+                .setUser(createUserFields())
+                .build());
+
+        assertEquals(1L, response.getId());
+        assertEquals("john.doe@example.com", response.getEmail());
+        assertEquals("1990-01-01", response.getBirthDate());
+    }
+
+    @Test
+    void createUser_MissingFirstName_ShouldReturnInvalidArgument() {
+        UserFields fields = createUserFields().toBuilder().clearFirstName().build();
+
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class,
+                () -> stub.createUser(CreateUserRequest.newBuilder().setUser(fields).build()));
+
+        assertEquals(Status.Code.INVALID_ARGUMENT, ex.getStatus().getCode());
+        assertEquals("First name should not be blank", ex.getStatus().getDescription());
+        verify(userService, never()).create(any(UserDTO.class));
+    }
+
+    @Test
+    void patchUser_PartialFields_ShouldSkipDefaultGroupConstraints() {
+        when(userService.patchUpdate(eq(1L), any(UserDTO.class))).thenReturn(createUser(1L));
+
+        stub.patchUser(UpdateUserRequest.newBuilder()
+                .setId(1L)
+                .setUser(UserFields.newBuilder().setAddress("789 Partial Ave"))
+                .build());
+
+        ArgumentCaptor<UserDTO> captor = ArgumentCaptor.forClass(UserDTO.class);
+        verify(userService).patchUpdate(eq(1L), captor.capture());
+        assertEquals("789 Partial Ave", captor.getValue().getAddress());
+        assertNull(captor.getValue().getEmail());
+    }
+
+    @Test
+    void patchUser_InvalidPhone_ShouldReturnInvalidArgument() {
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class,
+                () -> stub.patchUser(UpdateUserRequest.newBuilder()
+                        .setId(1L)
+                        .setUser(UserFields.newBuilder().setPhoneNumber("phone"))
+                        .build()));
+
+        assertEquals(Status.Code.INVALID_ARGUMENT, ex.getStatus().getCode());
+        assertEquals("Invalid phone number format", ex.getStatus().getDescription());
+    }
+
+    @Test
+    void updateUser_PatchQueuedOverRest_ShouldApplyPatchFirst() {
+        UserDTO patch = UserDTO.builder().address("789 Queued Ave").build();
+        patchWriteBehindService.enqueue(1L, patch);
+        when(userService.update(eq(1L), any(UserDTO.class))).thenReturn(createUser(1L));
+
+        stub.updateUser(UpdateUserRequest.newBuilder().setId(1L).setUser(createUserFields()).build());
+
+        InOrder inOrder = inOrder(userService);
+        inOrder.verify(userService).patchUpdate(eq(1L), argThat(dto -> "789 Queued Ave".equals(dto.getAddress())));
+        inOrder.verify(userService).update(eq(1L), any(UserDTO.class));
+    }
+
+    @Test
+    void deleteUser_PatchQueuedOverRest_ShouldApplyPatchBeforeDelete() {
+        patchWriteBehindService.enqueue(1L, UserDTO.builder().address("789 Queued Ave").build());
+
+        stub.deleteUser(DeleteUserRequest.newBuilder().setId(1L).build());
+
+        InOrder inOrder = inOrder(userService);
+        inOrder.verify(userService).patchUpdate(eq(1L), any(UserDTO.class));
+        inOrder.verify(userService).delete(1L);
+    }
+
+    @Test
+    void deleteUser_NonExistentUser_ShouldReturnNotFound() {
+        doThrow(new EntityNotFoundException("User with id 1 not found")).when(userService).delete(1L);
+
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class,
+                () -> stub.deleteUser(DeleteUserRequest.newBuilder().setId(1L).build()));
+
+        assertEquals(Status.Code.NOT_FOUND, ex.getStatus().getCode());
+    }
+
+    @Test
+    void findByBirthDateRange_ShouldStreamUsers() {
+        LocalDate start = LocalDate.of(1990, 1, 1);
+        when(userService.findByBirthDateRange(start, null)).thenReturn(List.of(createUser(1L), createUser(2L)));
+
+        List<UserMessage> users = new ArrayList<>();
+        stub.findByBirthDateRange(BirthDateRangeRequest.newBuilder().setStart("1990-01-01").build())
+                .forEachRemaining(users::add);
+
+        assertEquals(2, users.size());
+        assertEquals(2L, users.get(1).getId());
+    }
+
+    @Test
+    void findByBirthDateRange_ClientCancelsAfterFirstUser_ShouldStopStreaming() {
+        AtomicInteger fetched = new AtomicInteger();
+        List<User> users = new AbstractList<>() {
+            @Override
+            public User get(int index) {
+                fetched.incrementAndGet();
+                return createUser((long) index);
+            }
+
+            @Override
+            public int size() {
+                return 10_000;
+            }
+        };
+        when(userService.findByBirthDateRange(null, null)).thenReturn(users);
+        List<UserMessage> received = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+
+        UserServiceGrpc.newStub(channel).findByBirthDateRange(BirthDateRangeRequest.getDefaultInstance(),
+                new ClientResponseObserver<BirthDateRangeRequest, UserMessage>() {
+                    private ClientCallStreamObserver<BirthDateRangeRequest> requestStream;
+
+                    @Override
+                    public void beforeStart(ClientCallStreamObserver<BirthDateRangeRequest> requestStream) {
+                        this.requestStream = requestStream;
+                        requestStream.disableAutoRequestWithInitial(1);
+                    }
+
+                    @Override
+                    public void onNext(UserMessage user) {
+                        received.add(user);
+                        requestStream.cancel("Enough users", null);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        errors.add(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                    }
+                });
+
+        assertEquals(1, received.size());
+        assertEquals(Status.Code.CANCELLED, Status.fromThrowable(errors.get(0)).getCode());
+        assertTrue(fetched.get() < 10, "Server fetched " + fetched.get() + " users");
+    }
+
+    @Test
+    void findByBirthDateRange_MalformedDate_ShouldReturnInvalidArgument() {
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class,
+                () -> stub.findByBirthDateRange(BirthDateRangeRequest.newBuilder().setStart("01.01.1990").build())
+                        .forEachRemaining(user -> { }));
+
+        assertEquals(Status.Code.INVALID_ARGUMENT, ex.getStatus().getCode());
+    }
+
+    private UserFields createUserFields() {
+        return UserFields.newBuilder()
+                .setEmail("john.doe@example.com")
+                .setFirstName("John")
+                .setLastName("Doe")
+                .setBirthDate("1990-01-01")
+                .setAddress("123 Main St")
+                .setPhoneNumber("+380670891268")
+                .build();
+    }
+
+    private User createUser(Long id) {
+        return User.builder()
+                .id(id)
+                .email("john.doe@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .address("123 Main St")
+                .phoneNumber("+380670891268")
+                .build();
+    }
+}
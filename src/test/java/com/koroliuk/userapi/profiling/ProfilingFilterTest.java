@@ -0,0 +1,70 @@
+package com.koroliuk.userapi.profiling;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.koroliuk.userapi.dto.UserDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"user.profiling.enabled=true", "grpc.server.enabled=false"})
+@AutoConfigureMockMvc
+class ProfilingFilterTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void createUser_WithProfileHeader_ShouldReturnServerTiming() throws Exception {
+        UserDTO userDto = UserDTO.builder()
+                .email("profiled@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .build();
+
+        mvc.perform(post("/users")
+                        .header(ProfilingFilter.PROFILE_HEADER, "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userDto)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.email", is("profiled@example.com")))
+                .andExpect(header().string(ProfilingFilter.SERVER_TIMING_HEADER, allOf(
+                        containsString("validation;dur="),
+                        matchesRegex(".*controller;dur=[0-9.]+(, .*|$)"),
+                        containsString("service;dur="),
+                        containsString("repository.save;dur="),
+                        matchesRegex(".*repository\\.save;dur=[0-9.]+;desc=\"calls=1 sql=[1-9][0-9]* rows=1\".*"),
+                        containsString("serialization;dur="),
+                        containsString("total;dur="),
+                        not(containsString("alloc")))));
+    }
+
+    @Test
+    void search_WithAllocProfileHeader_ShouldReportAllocatedBytes() throws Exception {
+        mvc.perform(get("/users/search")
+                        .header(ProfilingFilter.PROFILE_HEADER, "alloc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ProfilingFilter.SERVER_TIMING_HEADER,
+                        matchesRegex(".*alloc;desc=\"bytes=[0-9]+\"$")));
+    }
+
+    @Test
+    void search_WithoutProfileHeader_ShouldNotReturnServerTiming() throws Exception {
+        mvc.perform(get("/users/search"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(ProfilingFilter.SERVER_TIMING_HEADER));
+    }
+}
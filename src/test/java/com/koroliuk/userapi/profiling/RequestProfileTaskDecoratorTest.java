@@ -0,0 +1,40 @@
+package com.koroliuk.userapi.profiling;
+
+import com.koroliuk.userapi.sharding.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestProfileTaskDecoratorTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestProfile.clear();
+    }
+
+    @Test
+    void fanOut_WithDecorator_ShouldRecordShardQueriesInRequestProfile() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("requestProfileTaskDecorator", new RequestProfileTaskDecorator());
+        ShardRouter shardRouter = new ShardRouter(new String[]{"shard0", "shard1", "shard2"},
+                beanFactory.getBeanProvider(TaskDecorator.class));
+        RequestProfile profile = RequestProfile.start(false);
+
+        List<Thread> threads = shardRouter.fanOut(() -> {
+            RequestProfile shardProfile = RequestProfile.current();
+            shardProfile.incrementSqlCount();
+            shardProfile.record("repository.findAll", 1_000, shardProfile.getSqlCount(), 2);
+            return List.of(Thread.currentThread());
+        });
+        shardRouter.shutdown();
+
+        assertFalse(threads.contains(Thread.currentThread()));
+        assertEquals(0, profile.getSqlCount());
+        assertTrue(profile.toServerTiming().contains("repository.findAll;dur=0.003;desc=\"calls=3 sql=3 rows=6\""));
+    }
+}
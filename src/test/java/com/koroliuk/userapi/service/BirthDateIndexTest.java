@@ -0,0 +1,111 @@
+package com.koroliuk.userapi.service;
+
+import com.koroliuk.userapi.repository.UserRepository;
+import com.koroliuk.userapi.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BirthDateIndexTest {
+
+    private static final LocalDate FIRST = LocalDate.of(1990, 1, 1);
+    private static final LocalDate SECOND = LocalDate.of(1990, 1, 2);
+    private static final LocalDate THIRD = LocalDate.of(1990, 1, 3);
+
+    @Mock
+    private UserRepository userRepository;
+
+    private BirthDateIndex birthDateIndex;
+
+    @BeforeEach
+    void setUp() {
+        birthDateIndex = new BirthDateIndex(userRepository, new ShardRouter(new String[0]), true);
+    }
+
+    @Test
+    void findIds_BeforeLoad_ShouldBeEmpty() {
+        birthDateIndex.put(1L, FIRST, 0L);
+
+        verifyNoInteractions(userRepository);
+        assertFalse(birthDateIndex.isReady());
+        assertEquals(0, birthDateIndex.findIds(Long.MIN_VALUE, Long.MAX_VALUE).length);
+    }
+
+    @Test
+    void findIds_AfterLoad_ShouldReturnIdsInRangeOrderedByBirthDateAndId() {
+        load(new Row(5L, THIRD, 0L), new Row(3L, SECOND, 0L), new Row(1L, SECOND, 0L), new Row(4L, FIRST, 0L));
+
+        assertArrayEquals(new long[]{1L, 3L, 5L}, birthDateIndex.findIds(SECOND.toEpochDay(), THIRD.toEpochDay()));
+        assertEquals(2, birthDateIndex.count(SECOND.toEpochDay(), SECOND.toEpochDay()));
+        assertEquals(0, birthDateIndex.count(THIRD.plusDays(1).toEpochDay(), Long.MAX_VALUE));
+    }
+
+    @Test
+    void put_ChangedAndNewUsers_ShouldMoveThemToTheirSavedBirthDates() {
+        load(new Row(1L, FIRST, 0L), new Row(2L, SECOND, 0L));
+
+        birthDateIndex.put(1L, THIRD, 1L);
+        birthDateIndex.put(3L, SECOND, 0L);
+
+        assertArrayEquals(new long[]{2L, 3L, 1L}, birthDateIndex.findIds(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(0, birthDateIndex.count(FIRST.toEpochDay(), FIRST.toEpochDay()));
+        verify(userRepository, times(1)).findByBirthDateNotNull();
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void put_OutOfCommitOrder_ShouldKeepNewestVersion() {
+        load(new Row(1L, FIRST, 0L));
+        // the second write committed THIRD, but the first write's update arrives last
+        birthDateIndex.put(1L, THIRD, 2L);
+        birthDateIndex.put(1L, SECOND, 1L);
+
+        assertArrayEquals(new long[]{1L}, birthDateIndex.findIds(THIRD.toEpochDay(), THIRD.toEpochDay()));
+        assertEquals(0, birthDateIndex.count(SECOND.toEpochDay(), SECOND.toEpochDay()));
+    }
+
+    @Test
+    void remove_DeletedUser_ShouldDropItAndIgnoreLaterUpdates() {
+        load(new Row(1L, FIRST, 0L), new Row(2L, SECOND, 0L));
+
+        birthDateIndex.remove(1L);
+        birthDateIndex.remove(42L);
+        // an update that committed before the delete but arrives after it
+        birthDateIndex.put(1L, THIRD, 1L);
+
+        assertArrayEquals(new long[]{2L}, birthDateIndex.findIds(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    private void load(Row... rows) {
+        when(userRepository.findByBirthDateNotNull()).thenReturn(List.of(rows));
+        birthDateIndex.load();
+        assertTrue(birthDateIndex.isReady());
+    }
+
+    private record Row(Long id, LocalDate birthDate, Long version) implements UserRepository.BirthDateView {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public LocalDate getBirthDate() {
+            return birthDate;
+        }
+
+        @Override
+        public Long getVersion() {
+            return version;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.koroliuk.userapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BirthDateRangeKeyTest {
+
+    private static final LocalDate START = LocalDate.of(1990, 1, 1);
+
+    @Test
+    void of_EndInFuture_ShouldBeCappedAtToday() {
+        LocalDate today = LocalDate.now();
+
+        assertEquals(BirthDateRangeKey.of(START, today.plusYears(100)), BirthDateRangeKey.of(START, today.plusDays(1)));
+        assertEquals(today.toEpochDay(), BirthDateRangeKey.of(START, today.plusYears(100)).toEpochDay());
+    }
+
+    @Test
+    void of_SingleBound_ShouldBeExclusive() {
+        assertEquals(new BirthDateRangeKey(START.toEpochDay() + 1, LocalDate.now().toEpochDay()),
+                BirthDateRangeKey.of(START, null));
+        assertEquals(new BirthDateRangeKey(Long.MIN_VALUE, START.toEpochDay() - 1), BirthDateRangeKey.of(null, START));
+    }
+
+    @Test
+    void of_NoBounds_ShouldNotMatchAnyBoundedSearch() {
+        assertFalse(BirthDateRangeKey.of(null, null).isBounded());
+        assertNotEquals(BirthDateRangeKey.ALL, BirthDateRangeKey.of(null, LocalDate.now().plusDays(1)));
+    }
+}
@@ -0,0 +1,70 @@
+package com.koroliuk.userapi.service;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.koroliuk.userapi.config.HazelcastConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModificationTrackerTest {
+
+    private static HazelcastInstance firstNode;
+    private static HazelcastInstance secondNode;
+
+    @BeforeAll
+    static void startCluster() {
+        Config config = new HazelcastConfig().userCacheConfig("modification-tracker-test-" + UUID.randomUUID(),
+                new String[]{"127.0.0.1"}, 600, 100);
+        config.getNetworkConfig().getInterfaces().setEnabled(true).addInterface("127.0.0.1");
+        firstNode = Hazelcast.newHazelcastInstance(config);
+        secondNode = Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterAll
+    static void stopCluster() {
+        secondNode.shutdown();
+        firstNode.shutdown();
+    }
+
+    @Test
+    void markModified_OnOneNode_ShouldMoveLastModifiedOfOtherNode() {
+        ModificationTracker firstTracker = new ModificationTracker(providerOf(firstNode));
+        ModificationTracker secondTracker = new ModificationTracker(providerOf(secondNode));
+        Instant before = secondTracker.getLastModified();
+        assertEquals(before, firstTracker.getLastModified());
+
+        firstTracker.markModified();
+
+        assertTrue(secondTracker.getLastModified().isAfter(before));
+        assertEquals(firstTracker.getLastModified(), secondTracker.getLastModified());
+    }
+
+    @Test
+    void markModified_WithoutHazelcast_ShouldAdvanceOnEveryWrite() {
+        ModificationTracker tracker = new ModificationTracker(
+                new StaticListableBeanFactory().getBeanProvider(HazelcastInstance.class));
+        Instant before = tracker.getLastModified();
+
+        tracker.markModified();
+        Instant first = tracker.getLastModified();
+        tracker.markModified();
+
+        assertTrue(first.isAfter(before));
+        assertTrue(tracker.getLastModified().isAfter(first));
+    }
+
+    private static ObjectProvider<HazelcastInstance> providerOf(HazelcastInstance instance) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("hazelcastInstance", instance);
+        return beanFactory.getBeanProvider(HazelcastInstance.class);
+    }
+}
@@ -0,0 +1,137 @@
+package com.koroliuk.userapi.service;
+
+import com.koroliuk.userapi.dto.PatchStatus;
+import com.koroliuk.userapi.dto.UserDTO;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatchWriteBehindServiceTest {
+
+    @Mock
+    private UserService userService;
+
+    private PatchWriteBehindService patchWriteBehindService;
+
+    @BeforeEach
+    void setUp() {
+        patchWriteBehindService = new PatchWriteBehindService(userService, true, 60_000, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        patchWriteBehindService.shutdown();
+    }
+
+    @Test
+    void enqueue_PatchesWithinWindow_ShouldBeMergedIntoSingleUpdate() {
+        PatchStatus first = patchWriteBehindService.enqueue(1L, UserDTO.builder()
+                .email("first@example.com")
+                .address("1 First St")
+                .build());
+        PatchStatus second = patchWriteBehindService.enqueue(1L, UserDTO.builder()
+                .email("second@example.com")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .build());
+
+        assertEquals(PatchStatus.State.PENDING, patchWriteBehindService.getStatus(first.getTicketId()).getState());
+        patchWriteBehindService.shutdown();
+
+        ArgumentCaptor<UserDTO> captor = ArgumentCaptor.forClass(UserDTO.class);
+        verify(userService, times(1)).patchUpdate(eq(1L), captor.capture());
+        assertEquals("second@example.com", captor.getValue().getEmail());
+        assertEquals("1 First St", captor.getValue().getAddress());
+        assertEquals(LocalDate.of(1990, 1, 1), captor.getValue().getBirthDate());
+        assertEquals(PatchStatus.State.APPLIED, patchWriteBehindService.getStatus(first.getTicketId()).getState());
+        assertEquals(PatchStatus.State.APPLIED, patchWriteBehindService.getStatus(second.getTicketId()).getState());
+    }
+
+    @Test
+    void enqueue_PatchesForDifferentUsers_ShouldNotBeMerged() {
+        patchWriteBehindService.enqueue(1L, UserDTO.builder().address("1 First St").build());
+        patchWriteBehindService.enqueue(2L, UserDTO.builder().address("2 Second St").build());
+
+        patchWriteBehindService.shutdown();
+
+        verify(userService).patchUpdate(eq(1L), any(UserDTO.class));
+        verify(userService).patchUpdate(eq(2L), any(UserDTO.class));
+    }
+
+    @Test
+    void enqueue_FailedUpdate_ShouldMarkAllTicketsFailed() {
+        when(userService.patchUpdate(eq(1L), any(UserDTO.class)))
+                .thenThrow(new EntityNotFoundException("User with id 1 not found"));
+        PatchStatus status = patchWriteBehindService.enqueue(1L, UserDTO.builder().address("1 First St").build());
+
+        patchWriteBehindService.shutdown();
+
+        PatchStatus failed = patchWriteBehindService.getStatus(status.getTicketId());
+        assertEquals(PatchStatus.State.FAILED, failed.getState());
+        assertEquals("User with id 1 not found", failed.getMessage());
+    }
+
+    @Test
+    void enqueue_MergedUpdateRejected_ShouldApplyPatchesOneByOne() {
+        UserDTO address = UserDTO.builder().address("1 First St").build();
+        UserDTO underage = UserDTO.builder().birthDate(LocalDate.now().minusYears(10)).build();
+        when(userService.patchUpdate(eq(1L), argThat(patch -> patch.getBirthDate() != null)))
+                .thenThrow(new IllegalArgumentException("User must be at least 18 years old."));
+        PatchStatus first = patchWriteBehindService.enqueue(1L, address);
+        PatchStatus second = patchWriteBehindService.enqueue(1L, underage);
+
+        patchWriteBehindService.shutdown();
+
+        verify(userService).patchUpdate(1L, address);
+        assertEquals(PatchStatus.State.APPLIED, patchWriteBehindService.getStatus(first.getTicketId()).getState());
+        PatchStatus failed = patchWriteBehindService.getStatus(second.getTicketId());
+        assertEquals(PatchStatus.State.FAILED, failed.getState());
+        assertEquals("User must be at least 18 years old.", failed.getMessage());
+    }
+
+    @Test
+    void writeThrough_AfterPatch_ShouldApplyPendingPatchFirst() {
+        patchWriteBehindService.enqueue(1L, UserDTO.builder().address("1 First St").build());
+
+        String result = patchWriteBehindService.writeThrough(1L, () -> {
+            verify(userService).patchUpdate(eq(1L), any(UserDTO.class));
+            return "updated";
+        });
+
+        assertEquals("updated", result);
+        patchWriteBehindService.shutdown();
+        verify(userService, times(1)).patchUpdate(eq(1L), any(UserDTO.class));
+    }
+
+    @Test
+    void writeThrough_FailingWrite_ShouldRethrowException() {
+        assertThrows(EntityNotFoundException.class, () -> patchWriteBehindService.writeThrough(1L, () -> {
+            throw new EntityNotFoundException("User with id 1 not found");
+        }));
+    }
+
+    @Test
+    void enqueue_WhenDisabled_ShouldThrowIllegalStateException() {
+        PatchWriteBehindService disabled = new PatchWriteBehindService(userService, false, 200, 1);
+        assertThrows(IllegalStateException.class, () -> disabled.enqueue(1L, UserDTO.builder().build()));
+    }
+
+    @Test
+    void getStatus_UnknownTicket_ShouldThrowEntityNotFoundException() {
+        assertThrows(EntityNotFoundException.class, () -> patchWriteBehindService.getStatus(UUID.randomUUID()));
+    }
+}
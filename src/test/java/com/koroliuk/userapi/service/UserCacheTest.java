@@ -0,0 +1,134 @@
+package com.koroliuk.userapi.service;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.koroliuk.userapi.config.HazelcastConfig;
+import com.koroliuk.userapi.model.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTest {
+
+    private static HazelcastInstance firstNode;
+    private static HazelcastInstance secondNode;
+    private static UserCache firstCache;
+    private static UserCache secondCache;
+
+    @BeforeAll
+    static void startCluster() {
+        Config config = new HazelcastConfig().userCacheConfig("user-cache-test-" + UUID.randomUUID(),
+                new String[]{"127.0.0.1"}, 600, 100);
+        config.getNetworkConfig().getInterfaces().setEnabled(true).addInterface("127.0.0.1");
+        firstNode = Hazelcast.newHazelcastInstance(config);
+        secondNode = Hazelcast.newHazelcastInstance(config);
+        firstCache = new UserCache(providerOf(firstNode));
+        secondCache = new UserCache(providerOf(secondNode));
+    }
+
+    @AfterAll
+    static void stopCluster() {
+        secondNode.shutdown();
+        firstNode.shutdown();
+    }
+
+    @Test
+    void put_OnOneNode_ShouldBeVisibleOnOtherNode() {
+        firstCache.put(createUser(1L, 0L, "first@example.com"));
+
+        assertEquals(2, firstNode.getCluster().getMembers().size());
+        assertEquals("first@example.com", secondCache.get(1L).orElseThrow().getEmail());
+    }
+
+    @Test
+    void put_NewerVersion_ShouldInvalidateNearCacheOfOtherNode() {
+        firstCache.put(createUser(2L, 0L, "old@example.com"));
+        assertEquals("old@example.com", secondCache.get(2L).orElseThrow().getEmail());
+        assertEquals("old@example.com", secondCache.get(2L).orElseThrow().getEmail());
+
+        firstCache.put(createUser(2L, 1L, "new@example.com"));
+
+        assertEquals("new@example.com", awaitEmail(secondCache, 2L, "new@example.com"));
+    }
+
+    @Test
+    void put_OlderVersion_ShouldNotReplaceNewerUser() {
+        firstCache.put(createUser(3L, 2L, "new@example.com"));
+        secondCache.put(createUser(3L, 1L, "stale@example.com"));
+
+        assertEquals("new@example.com", firstCache.get(3L).orElseThrow().getEmail());
+    }
+
+    @Test
+    void markDeleted_OnOneNode_ShouldRemoveUserFromAllNodes() {
+        firstCache.put(createUser(4L, 0L, "evicted@example.com"));
+        assertTrue(secondCache.get(4L).isPresent());
+
+        firstCache.markDeleted(4L);
+
+        assertTrue(firstCache.get(4L).isEmpty());
+        assertNull(awaitEmail(secondCache, 4L, null));
+    }
+
+    @Test
+    void put_ReadStartedBeforeDelete_ShouldNotResurrectUser() {
+        User loadedBeforeDelete = createUser(6L, 3L, "deleted@example.com");
+
+        secondCache.markDeleted(6L);
+        firstCache.put(loadedBeforeDelete);
+
+        assertTrue(firstCache.get(6L).isEmpty());
+        assertTrue(secondCache.get(6L).isEmpty());
+    }
+
+    @Test
+    void get_WithoutHazelcast_ShouldAlwaysMiss() {
+        UserCache disabledCache = new UserCache(new StaticListableBeanFactory().getBeanProvider(HazelcastInstance.class));
+        disabledCache.put(createUser(5L, 0L, "ignored@example.com"));
+
+        assertTrue(disabledCache.get(5L).isEmpty());
+    }
+
+    // near cache invalidation events are delivered asynchronously
+    private static String awaitEmail(UserCache cache, Long id, String expected) {
+        String email = null;
+        for (int attempt = 0; attempt < 50; attempt++) {
+            email = cache.get(id).map(User::getEmail).orElse(null);
+            if (expected == null ? email == null : expected.equals(email)) {
+                return email;
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return email;
+            }
+        }
+        return email;
+    }
+
+    private static ObjectProvider<HazelcastInstance> providerOf(HazelcastInstance instance) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("hazelcastInstance", instance);
+        return beanFactory.getBeanProvider(HazelcastInstance.class);
+    }
+
+    private static User createUser(Long id, Long version, String email) {
+        return User.builder()
+                .id(id)
+                .version(version)
+                .email(email)
+                .firstName("John")
+                .lastName("Doe")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+}
@@ -1,21 +1,31 @@
 package com.koroliuk.userapi.service;
 
+import com.hazelcast.core.HazelcastInstance;
 import com.koroliuk.userapi.dto.UserDTO;
+import com.koroliuk.userapi.dto.UserFilter;
 import com.koroliuk.userapi.model.User;
 import com.koroliuk.userapi.repository.UserRepository;
+import com.koroliuk.userapi.sharding.ShardRouter;
+import com.koroliuk.userapi.sharding.SnowflakeIdGenerator;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -26,6 +36,22 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private BirthDateIndex birthDateIndex;
+
+    @Spy
+    private ModificationTracker modificationTracker =
+            new ModificationTracker(new StaticListableBeanFactory().getBeanProvider(HazelcastInstance.class));
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(new String[0]);
+
+    @Spy
+    private SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(0L);
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -52,12 +78,40 @@ class UserServiceImplTest {
                 .birthDate(LocalDate.of(2000, 1, 1))
                 .address("123 Main St")
                 .phoneNumber("+380670891268")
+                .version(0L)
                 .build();
 
         ReflectionTestUtils.setField(userService, "minimumAge", minimumAge);
+        ReflectionTestUtils.setField(userService, "defaultSearchLimit", 100);
+        ReflectionTestUtils.setField(userService, "maxSearchLimit", 1000);
+        ReflectionTestUtils.setField(userService, "minNamePrefixLength", 3);
+        ReflectionTestUtils.setField(userService, "maxAgeSpan", 10);
     }
 
 
+    @Test
+    void findById_CachedUser_ShouldNotQueryRepository() {
+        when(userCache.get(1L)).thenReturn(Optional.of(user));
+
+        assertSame(user, userService.findById(1L));
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void findById_UncachedUser_ShouldLoadAndCacheUser() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        assertSame(user, userService.findById(1L));
+        verify(userCache).put(user);
+    }
+
+    @Test
+    void findById_NonExistentUser_ShouldThrowEntityNotFoundException() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        assertThrows(EntityNotFoundException.class, () -> userService.findById(1L));
+        verify(userCache, never()).put(any());
+    }
+
     @Test
     void create_ValidUser_ShouldReturnUser() {
         when(userRepository.save(any(User.class))).thenReturn(user);
@@ -83,6 +137,33 @@ class UserServiceImplTest {
 
         assertNotNull(updatedUser);
         assertEquals(userDTO.getEmail(), updatedUser.getEmail());
+        verify(userCache).put(updatedUser);
+    }
+
+    @Test
+    void update_ConcurrentWriteConflict_ShouldReapplyOnFreshRow() {
+        User concurrentlyUpdated = user.toBuilder().address("456 Other St").version(1L).build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user), Optional.of(concurrentlyUpdated));
+        when(userRepository.save(any(User.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(User.class, 1L))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        User updatedUser = userService.update(1L, userDTO);
+
+        assertSame(concurrentlyUpdated, updatedUser);
+        assertEquals(userDTO.getAddress(), updatedUser.getAddress());
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void patchUpdate_PersistentWriteConflict_ShouldGiveUpAfterThreeAttempts() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenThrow(new ObjectOptimisticLockingFailureException(User.class, 1L));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> userService.patchUpdate(1L, UserDTO.builder().address("456 Other St").build()));
+        verify(userRepository, times(3)).save(any(User.class));
+        verify(userCache, never()).put(any());
     }
 
     @Test
@@ -141,6 +222,33 @@ class UserServiceImplTest {
         assertEquals(newValidBirthDate, user.getBirthDate());
     }
 
+    @Test
+    void patchUpdate_BirthDateChanged_ShouldPutSavedVersionIntoIndex() {
+        LocalDate newValidBirthDate = LocalDate.of(1990, 1, 1);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            User saved = invocation.getArgument(0);
+            saved.setVersion(1L);
+            return saved;
+        });
+
+        userService.patchUpdate(1L, UserDTO.builder().birthDate(newValidBirthDate).build());
+
+        verify(birthDateIndex).put(1L, newValidBirthDate, 1L);
+    }
+
+    @Test
+    void update_BirthDateUnchanged_ShouldNotTouchIndex() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        userDTO.setAddress("456 Other St");
+
+        userService.update(1L, userDTO);
+
+        verifyNoInteractions(birthDateIndex);
+    }
+
     @Test
     void patchUpdate_SameBirthDate_ShouldNotUpdateBirthDate() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
@@ -172,6 +280,27 @@ class UserServiceImplTest {
         when(userRepository.existsById(1L)).thenReturn(true);
         assertDoesNotThrow(() -> userService.delete(1L));
         verify(userRepository).deleteById(1L);
+        verify(userCache).markDeleted(1L);
+    }
+
+    @Test
+    void delete_UserExists_ShouldAdvanceLastModified() throws InterruptedException {
+        Instant before = userService.getLastModified();
+        when(userRepository.existsById(1L)).thenReturn(true);
+        Thread.sleep(2);
+
+        userService.delete(1L);
+
+        assertTrue(userService.getLastModified().isAfter(before));
+    }
+
+    @Test
+    void update_NonExistentUser_ShouldNotAdvanceLastModified() {
+        Instant before = userService.getLastModified();
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> userService.update(1L, userDTO));
+        assertEquals(before, userService.getLastModified());
     }
 
     @Test
@@ -230,4 +359,185 @@ class UserServiceImplTest {
         LocalDate end = LocalDate.of(2001, 12, 31);
         assertThrows(IllegalArgumentException.class, () -> userService.findByBirthDateRange(start, end));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findByFilter_IndexedFilter_ShouldReturnSortedAndLimitedUsers() {
+        User older = user.toBuilder().id(2L).birthDate(LocalDate.of(1990, 1, 1)).build();
+        User oldest = user.toBuilder().id(3L).birthDate(LocalDate.of(1980, 1, 1)).build();
+        doReturn(List.of(user, older, oldest)).when(userRepository).findBy(any(Specification.class), any());
+
+        List<User> users = userService.findByFilter(UserFilter.builder()
+                .namePrefix("Use")
+                .emailDomain("example.com")
+                .sort("-birthDate")
+                .limit(2)
+                .build());
+
+        assertEquals(List.of(user, older), users);
+    }
+
+    @Test
+    void findByFilter_UnindexedFilterOnly_ShouldThrowIllegalArgumentException() {
+        UserFilter filter = UserFilter.builder().emailDomain("example.com").phonePresent(true).build();
+
+        assertThrows(IllegalArgumentException.class, () -> userService.findByFilter(filter));
+        verify(userRepository, never()).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    void findByFilter_UnindexedFilterWithWeakBound_ShouldThrowIllegalArgumentException() {
+        List<UserFilter> filters = List.of(
+                UserFilter.builder().emailDomain("x").minAge(0).build(),
+                UserFilter.builder().emailDomain("x").maxAge(1000).build(),
+                UserFilter.builder().emailDomain("x").minAge(0).maxAge(200).build(),
+                UserFilter.builder().emailDomain("x").namePrefix("U").build());
+
+        for (UserFilter filter : filters) {
+            assertThrows(IllegalArgumentException.class, () -> userService.findByFilter(filter));
+        }
+        verify(userRepository, never()).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    void findByFilter_UnindexedFilterWithNarrowAgeRange_ShouldQueryRepository() {
+        doReturn(List.of(user)).when(userRepository).findBy(any(Specification.class), any());
+
+        List<User> users = userService.findByFilter(UserFilter.builder()
+                .emailDomain("example.com")
+                .minAge(20)
+                .maxAge(29)
+                .build());
+
+        assertEquals(List.of(user), users);
+    }
+
+    @Test
+    void findByFilter_SortByLastNameWithCollation_ShouldMergeInCollationOrder() {
+        ReflectionTestUtils.setField(userService, "collation", "en");
+        User banana = user.toBuilder().id(2L).lastName("Banana").build();
+        User apple = user.toBuilder().id(3L).lastName("apple").build();
+        doReturn(List.of(banana, apple)).when(userRepository).findBy(any(Specification.class), any());
+
+        List<User> users = userService.findByFilter(UserFilter.builder().namePrefix("abc").sort("lastName").build());
+
+        assertEquals(List.of(apple, banana), users);
+    }
+
+    @Test
+    void findByFilter_UnknownSortKey_ShouldThrowIllegalArgumentException() {
+        UserFilter filter = UserFilter.builder().namePrefix("Us").sort("address").build();
+
+        assertThrows(IllegalArgumentException.class, () -> userService.findByFilter(filter));
+    }
+
+    @Test
+    void findByFilter_LimitAboveMaximum_ShouldThrowIllegalArgumentException() {
+        UserFilter filter = UserFilter.builder().namePrefix("Us").limit(1001).build();
+
+        assertThrows(IllegalArgumentException.class, () -> userService.findByFilter(filter));
+    }
+
+    @Test
+    void findByFilter_MinAgeGreaterThanMaxAge_ShouldThrowIllegalArgumentException() {
+        UserFilter filter = UserFilter.builder().minAge(40).maxAge(30).build();
+
+        assertThrows(IllegalArgumentException.class, () -> userService.findByFilter(filter));
+    }
+
+    @Test
+    void findUpcomingBirthdays_ShouldSortByNextBirthday() {
+        LocalDate today = LocalDate.now();
+        User later = user.toBuilder().id(2L).birthDate(today.plusDays(20).minusYears(30)).build();
+        User sooner = user.toBuilder().id(3L).birthDate(today.plusDays(1).minusYears(40)).build();
+        when(userRepository.findByBirthMonthDayBetween(anyInt(), anyInt()))
+                .thenReturn(List.of(later, sooner))
+                .thenReturn(List.of());
+
+        assertEquals(List.of(sooner, later), userService.findUpcomingBirthdays(30));
+    }
+
+    @Test
+    void findUpcomingBirthdays_FirstOfMarchInNonLeapYear_ShouldIncludeLeapDayBirths() {
+        User leapDay = user.toBuilder().id(2L).birthDate(LocalDate.of(2004, 2, 29)).build();
+        stubBirthMonthDays(leapDay, user);
+
+        assertEquals(List.of(leapDay), userService.findUpcomingBirthdays(LocalDate.of(2027, 3, 1), 7));
+    }
+
+    @Test
+    void findUpcomingBirthdays_YearAheadEndingOnLeapDay_ShouldReturnLeapDayBirthsOnce() {
+        User leapDay = user.toBuilder().id(2L).birthDate(LocalDate.of(2004, 2, 29)).build();
+        stubBirthMonthDays(leapDay, user);
+
+        assertEquals(List.of(leapDay, user), userService.findUpcomingBirthdays(LocalDate.of(2027, 3, 1), 365));
+        verify(userRepository).findByBirthMonthDayBetween(230, 1231);
+        verify(userRepository).findByBirthMonthDayBetween(101, 229);
+    }
+
+    @Test
+    void findUpcomingBirthdays_InvalidDays_ShouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> userService.findUpcomingBirthdays(366));
+        assertThrows(IllegalArgumentException.class, () -> userService.findUpcomingBirthdays(-1));
+    }
+
+    @Test
+    void findTurningAge_WeekStartingFirstOfMarch_ShouldIncludeLeapDayBirths() {
+        userService.findTurningAge(18, LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 7));
+
+        verify(userRepository).findByBirthDateBetween(LocalDate.of(2008, 2, 29), LocalDate.of(2008, 3, 7));
+    }
+
+    @Test
+    void findTurningAge_WeekEndingTwentyEighthOfFebruary_ShouldExcludeLeapDayBirths() {
+        userService.findTurningAge(null, LocalDate.of(2026, 2, 22), null);
+
+        verify(userRepository).findByBirthDateBetween(LocalDate.of(2008, 2, 22), LocalDate.of(2008, 2, 28));
+    }
+
+    @Test
+    void findByBirthDateRange_IndexReady_ShouldFetchUsersInIndexOrder() {
+        User older = user.toBuilder().id(2L).birthDate(LocalDate.of(1990, 1, 1)).build();
+        LocalDate start = LocalDate.of(1990, 1, 1);
+        when(birthDateIndex.isReady()).thenReturn(true);
+        when(birthDateIndex.findIds(start.toEpochDay() + 1, LocalDate.now().toEpochDay())).thenReturn(new long[]{2L, 1L});
+        when(userRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(user, older));
+
+        assertEquals(List.of(older, user), userService.findByBirthDateRange(start, null));
+        verify(userRepository, never()).findByBirthDateAfter(any());
+    }
+
+    @Test
+    void countByBirthDateRange_IndexReady_ShouldNotQueryRepository() {
+        LocalDate start = LocalDate.of(1990, 1, 1);
+        LocalDate end = LocalDate.of(2000, 1, 1);
+        when(birthDateIndex.isReady()).thenReturn(true);
+        when(birthDateIndex.count(start.toEpochDay(), end.toEpochDay())).thenReturn(3);
+
+        assertEquals(3, userService.countByBirthDateRange(start, end));
+        verify(userRepository, never()).countByBirthDateBetween(any(), any());
+    }
+
+    @Test
+    void countByBirthDateRange_IndexNotReady_ShouldCountInRepository() {
+        LocalDate end = LocalDate.of(2000, 1, 1);
+        when(userRepository.countByBirthDateBefore(end)).thenReturn(4L);
+
+        assertEquals(4, userService.countByBirthDateRange(null, end));
+    }
+
+    @Test
+    void delete_UserExists_ShouldRemoveUserFromIndex() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        userService.delete(1L);
+
+        verify(birthDateIndex).remove(1L);
+    }
+
+    private void stubBirthMonthDays(User... users) {
+        when(userRepository.findByBirthMonthDayBetween(anyInt(), anyInt())).thenAnswer(invocation -> Stream.of(users)
+                .filter(candidate -> User.monthDayOf(candidate.getBirthDate()) >= invocation.<Integer>getArgument(0)
+                        && User.monthDayOf(candidate.getBirthDate()) <= invocation.<Integer>getArgument(1))
+                .toList());
+    }
+}
@@ -0,0 +1,191 @@
+package com.koroliuk.userapi.sharding;
+
+import com.koroliuk.userapi.dto.UserDTO;
+import com.koroliuk.userapi.dto.UserFilter;
+import com.koroliuk.userapi.model.User;
+import com.koroliuk.userapi.service.BirthDateIndex;
+import com.koroliuk.userapi.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "user.sharding.urls=jdbc:h2:mem:shard0,jdbc:h2:mem:shard1,jdbc:h2:mem:shard2",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "grpc.server.enabled=false",
+        "user.read-model.enabled=true",
+        "user.id.node-id=0"
+})
+class ShardingTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    @Autowired
+    private BirthDateIndex birthDateIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            shardRouter.onShard(shard, () -> jdbcTemplate.update("DELETE FROM users"));
+        }
+        birthDateIndex.load();
+    }
+
+    @Test
+    void create_ManyUsers_ShouldSpreadThemOverAllShards() {
+        for (int i = 0; i < 30; i++) {
+            User user = userService.create(createUserDTO(LocalDate.of(1990, 1, 1).plusDays(i)));
+            assertEquals(1, countOnShard(shardRouter.shardFor(user.getId()), user.getId()));
+        }
+
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            assertTrue(countOnShard(shard, null) > 0, "Shard " + shard + " should hold users");
+        }
+    }
+
+    @Test
+    void findByBirthDateRange_ShouldMergeSortedResultsFromAllShards() {
+        for (int i = 9; i >= 0; i--) {
+            userService.create(createUserDTO(LocalDate.of(1990, 1, 1).plusDays(i)));
+        }
+
+        List<User> users = userService.findByBirthDateRange(LocalDate.of(1990, 1, 3), null);
+
+        assertEquals(7, users.size());
+        for (int i = 1; i < users.size(); i++) {
+            assertTrue(users.get(i - 1).getBirthDate().isBefore(users.get(i).getBirthDate()));
+        }
+        assertEquals(7, userService.countByBirthDateRange(LocalDate.of(1990, 1, 3), null));
+    }
+
+    @Test
+    void findByBirthDateRange_ShouldMatchReloadedReadModel() {
+        for (int i = 0; i < 10; i++) {
+            userService.create(createUserDTO(LocalDate.of(1990, 1, 1).plusDays(i % 4)));
+        }
+        LocalDate start = LocalDate.of(1990, 1, 2);
+        LocalDate end = LocalDate.of(1990, 1, 3);
+        List<Long> incremental = userService.findByBirthDateRange(start, end).stream().map(User::getId).toList();
+
+        birthDateIndex.load();
+
+        assertEquals(5, incremental.size());
+        assertEquals(incremental, userService.findByBirthDateRange(start, end).stream().map(User::getId).toList());
+    }
+
+    @Test
+    void findByFilter_ShouldMergeMatchingUsersFromAllShards() {
+        for (int i = 0; i < 10; i++) {
+            UserDTO userDTO = createUserDTO(LocalDate.of(1990, 1, 1).plusDays(i));
+            userDTO.setLastName(i % 2 == 0 ? "Doe" : "Smith");
+            userDTO.setPhoneNumber(i < 6 ? "+380670891268" : null);
+            userService.create(userDTO);
+        }
+
+        List<User> users = userService.findByFilter(UserFilter.builder()
+                .namePrefix("Doe")
+                .minAge(18)
+                .phonePresent(true)
+                .sort("-birthDate")
+                .limit(2)
+                .build());
+
+        assertEquals(List.of(LocalDate.of(1990, 1, 5), LocalDate.of(1990, 1, 3)),
+                users.stream().map(User::getBirthDate).toList());
+    }
+
+    @Test
+    void findUpcomingBirthdays_ShouldFollowBirthDateChanges() {
+        LocalDate today = LocalDate.now();
+        User user = userService.create(createUserDTO(today.plusDays(40).minusYears(30)));
+        userService.create(createUserDTO(today.plusDays(3).minusYears(25)));
+
+        assertEquals(1, userService.findUpcomingBirthdays(7).size());
+
+        userService.patchUpdate(user.getId(), UserDTO.builder().birthDate(today.plusDays(1).minusYears(30)).build());
+
+        List<User> users = userService.findUpcomingBirthdays(7);
+        assertEquals(2, users.size());
+        assertEquals(user.getId(), users.get(0).getId());
+    }
+
+    @Test
+    void updateAndDelete_ShouldBeRoutedToOwningShard() {
+        User user = userService.create(createUserDTO(LocalDate.of(1990, 1, 1)));
+
+        User patched = userService.patchUpdate(user.getId(), UserDTO.builder().address("789 Partial Ave").build());
+        assertEquals("789 Partial Ave", patched.getAddress());
+
+        userService.delete(user.getId());
+        assertEquals(0, countOnShard(shardRouter.shardFor(user.getId()), user.getId()));
+    }
+
+    @Test
+    void rebalance_ShouldMoveUsersToTheirShard() {
+        long misplacedId = findIdNotOwnedBy(0);
+        shardRouter.onShard(0, () -> jdbcTemplate.update(
+                "INSERT INTO users (id, version, email, first_name, last_name, birth_date) VALUES (?, 0, ?, ?, ?, ?)",
+                misplacedId, "moved@example.com", "John", "Doe", LocalDate.of(1990, 1, 1)));
+
+        assertEquals(1, shardRebalancer.rebalance());
+
+        assertEquals(0, countOnShard(0, misplacedId));
+        assertEquals(1, countOnShard(shardRouter.shardFor(misplacedId), misplacedId));
+        assertEquals(0, shardRebalancer.rebalance());
+    }
+
+    @Test
+    void findByBirthDateRange_UserCopiedButNotYetDeleted_ShouldBeReturnedOnce() {
+        User user = userService.create(createUserDTO(LocalDate.of(1990, 1, 1)));
+        int otherShard = (shardRouter.shardFor(user.getId()) + 1) % shardRouter.getShardCount();
+        shardRouter.onShard(otherShard, () -> jdbcTemplate.update(
+                "INSERT INTO users (id, version, email, first_name, last_name, birth_date) VALUES (?, 0, ?, ?, ?, ?)",
+                user.getId(), "stale@example.com", "John", "Doe", LocalDate.of(1990, 1, 1)));
+        birthDateIndex.load();
+
+        List<User> users = userService.findByBirthDateRange(LocalDate.of(1989, 1, 1), LocalDate.of(1991, 1, 1));
+
+        assertEquals(1, users.size());
+        assertEquals(user.getEmail(), users.get(0).getEmail());
+    }
+
+    private long findIdNotOwnedBy(int shard) {
+        long id = 1;
+        while (shardRouter.shardFor(id) == shard) {
+            id++;
+        }
+        return id;
+    }
+
+    private int countOnShard(int shard, Long id) {
+        return shardRouter.onShard(shard, () -> id == null
+                ? jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class)
+                : jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Integer.class, id));
+    }
+
+    private UserDTO createUserDTO(LocalDate birthDate) {
+        return UserDTO.builder()
+                .email("john.doe@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .birthDate(birthDate)
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.koroliuk.userapi.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final long MAX_SAFE_INTEGER = (1L << 53) - 1;
+
+    @Test
+    void nextId_ShouldBeUniqueIncreasingAndSafeForJavaScript() {
+        SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(63L);
+        Set<Long> ids = new HashSet<>();
+        long previous = -1;
+        for (int i = 0; i < 10_000; i++) {
+            long id = idGenerator.nextId();
+            assertTrue(id > previous);
+            assertTrue(id <= MAX_SAFE_INTEGER);
+            ids.add(id);
+            previous = id;
+        }
+        assertEquals(10_000, ids.size());
+    }
+
+    @Test
+    void nextId_DifferentNodes_ShouldNotCollide() {
+        long first = new SnowflakeIdGenerator(1L).nextId();
+        long second = new SnowflakeIdGenerator(2L).nextId();
+
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void constructor_MissingOrInvalidNodeId_ShouldFail() {
+        assertThrows(IllegalStateException.class, () -> new SnowflakeIdGenerator(null));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(64L));
+    }
+
+    @Test
+    void constructor_SingleInstanceWithoutNodeId_ShouldUseDefault() {
+        SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(null, 5L, new String[0], new String[0]);
+
+        assertEquals(5L, (idGenerator.nextId() >> 6) & 63);
+    }
+
+    @Test
+    void constructor_ShardedOrClusteredWithoutNodeId_ShouldFail() {
+        String[] shards = {"jdbc:h2:mem:shard0", "jdbc:h2:mem:shard1"};
+        String[] members = {"10.0.0.1", "10.0.0.2"};
+
+        assertThrows(IllegalStateException.class, () -> new SnowflakeIdGenerator(null, 0L, shards, new String[0]));
+        assertThrows(IllegalStateException.class, () -> new SnowflakeIdGenerator(null, 0L, new String[0], members));
+        assertDoesNotThrow(() -> new SnowflakeIdGenerator(7L, 0L, shards, members));
+    }
+}
@@ -0,0 +1,74 @@
+package com.koroliuk.userapi.validation;
+
+import com.koroliuk.userapi.dto.UserDTO;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of validating one {@link UserDTO} through Spring's binding result, with Hibernate Validator behind
+ * {@link SpringValidatorAdapter} (what {@code @Valid} used before) and with {@link UserDTOValidator}.
+ * The invalid DTO breaks the email, phone number and birth date constraints. Run with
+ * {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath org.openjdk.jmh.Main UserDTOValidatorBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class UserDTOValidatorBenchmark {
+
+    @Param({"hibernate", "userDTOValidator"})
+    private String validator;
+
+    @Param({"valid", "invalid"})
+    private String dto;
+
+    private ValidatorFactory validatorFactory;
+    private SmartValidator smartValidator;
+    private UserDTO userDto;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        smartValidator = "hibernate".equals(validator)
+                ? new SpringValidatorAdapter(validatorFactory.getValidator())
+                : new UserDTOValidator();
+        userDto = UserDTO.builder()
+                .email("valid".equals(dto) ? "john.doe@example.com" : "john.doe@@example")
+                .firstName("John")
+                .lastName("Doe")
+                .birthDate("valid".equals(dto) ? LocalDate.of(1990, 1, 1) : LocalDate.now().plusDays(1))
+                .address("123 Main St")
+                .phoneNumber("valid".equals(dto) ? "+380670891268" : "phone")
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Errors validate() {
+        Errors errors = new BeanPropertyBindingResult(userDto, "userDTO");
+        smartValidator.validate(userDto, errors);
+        return errors;
+    }
+
+    @Benchmark
+    public Errors validatePatch() {
+        Errors errors = new BeanPropertyBindingResult(userDto, "userDTO");
+        smartValidator.validate(userDto, errors, OnPatch.class);
+        return errors;
+    }
+}
@@ -0,0 +1,118 @@
+package com.koroliuk.userapi.validation;
+
+import com.koroliuk.userapi.dto.UserDTO;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.groups.Default;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserDTOValidatorTest {
+
+    private final Validator beanValidator = Validation.buildDefaultValidatorFactory().getValidator();
+    private final UserDTOValidator userDTOValidator = new UserDTOValidator();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "john.doe@example.com", "a@b", "A_Z+tag@sub-domain.example.co", "x’y@example.com",
+            "first.last@a-b-c.d", "a--b@a--b.c", "~^`{|}@1.2.3.4", "", " ", "plain", "@example.com",
+            "john@", "john@@example.com", "john@example.com.", "john@.example.com", "john@exa..mple.com",
+            ".john@example.com", "john.@example.com", "jo..hn@example.com", "john@-example.com",
+            "john@example-.com", "john@exam_ple.com", "jöhn@example.com", "john@exämple.com",
+            "\"john\"@example.com", "john@[127.0.0.1]", "john doe@example.com", "john@example.com ",
+            "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa@example.com",
+            "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa@example.com",
+            "john@aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa.com",
+            "john@aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa.com"
+    })
+    void email_ShouldMatchBeanValidation(String email) {
+        UserDTO userDto = UserDTO.builder().email(email).build();
+        assertEquals(beanValidationMessages(userDto, OnPatch.class), messages(userDto, OnPatch.class), email);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "+380670891268", "380670891268", "(067)089-12-68", "+(1)555 0100", "++1", "1", "12345)",
+            "1234)5", "(12", "12)", ")12", "+", "", "phone", "+38 067 089.12/68", "+38\t067", "067_089",
+            "+380-67-(089)", "٣٤٥"
+    })
+    void phoneNumber_ShouldMatchBeanValidation(String phoneNumber) {
+        UserDTO userDto = UserDTO.builder().phoneNumber(phoneNumber).build();
+        assertEquals(beanValidationMessages(userDto, OnPatch.class), messages(userDto, OnPatch.class), phoneNumber);
+    }
+
+    @Test
+    void defaultGroup_EmptyUser_ShouldMatchBeanValidation() {
+        UserDTO userDto = UserDTO.builder().build();
+        assertEquals(beanValidationMessages(userDto, Default.class), messages(userDto));
+    }
+
+    @Test
+    void defaultGroup_BlankAndFutureValues_ShouldMatchBeanValidation() {
+        UserDTO userDto = UserDTO.builder()
+                .email("  ")
+                .firstName("\t")
+                .lastName("Doe")
+                .birthDate(LocalDate.now())
+                .phoneNumber("phone")
+                .build();
+        assertEquals(beanValidationMessages(userDto, Default.class), messages(userDto));
+    }
+
+    @Test
+    void defaultGroup_ValidUser_ShouldHaveNoErrors() {
+        UserDTO userDto = UserDTO.builder()
+                .email("john.doe@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .phoneNumber("+380670891268")
+                .build();
+        assertTrue(messages(userDto).isEmpty());
+    }
+
+    @Test
+    void patchGroup_PartialUser_ShouldSkipDefaultOnlyConstraints() {
+        UserDTO userDto = UserDTO.builder()
+                .birthDate(LocalDate.now().plusDays(1))
+                .build();
+        assertEquals(beanValidationMessages(userDto, OnPatch.class), messages(userDto, OnPatch.class));
+        assertEquals(Set.of("The birth date must be in the past"), messages(userDto, OnPatch.class));
+    }
+
+    @Test
+    void validate_ShouldRejectFieldsWithAnnotationCodes() {
+        UserDTO userDto = UserDTO.builder().email("plain").build();
+        Errors errors = new BeanPropertyBindingResult(userDto, "userDTO");
+
+        userDTOValidator.validate(userDto, errors, OnPatch.class);
+
+        assertEquals(1, errors.getFieldErrorCount());
+        assertEquals("email", errors.getFieldErrors().get(0).getField());
+        assertTrue(List.of(errors.getFieldErrors().get(0).getCodes()).contains("Email"));
+        assertEquals("Invalid email format", errors.getFieldErrors().get(0).getDefaultMessage());
+    }
+
+    private Set<String> messages(UserDTO userDto, Object... groups) {
+        return userDTOValidator.findViolations(userDto, groups).stream()
+                .map(UserDTOValidator.Violation::message)
+                .collect(Collectors.toSet());
+    }
+
+    private Set<String> beanValidationMessages(UserDTO userDto, Class<?> group) {
+        return beanValidator.validate(userDto, group).stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.toSet());
+    }
+}